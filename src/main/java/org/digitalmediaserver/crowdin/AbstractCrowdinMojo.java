@@ -18,19 +18,30 @@
  */
 package org.digitalmediaserver.crowdin;
 
+import static org.digitalmediaserver.crowdin.tool.Constants.STAGING_FOLDER_SUFFIX;
+import static org.digitalmediaserver.crowdin.tool.Constants.TRASH_FOLDER_SUFFIX;
 import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
 import static org.digitalmediaserver.crowdin.tool.StringUtil.isNotBlank;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.maven.execution.MavenSession;
@@ -38,14 +49,22 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.Mojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
 import org.digitalmediaserver.crowdin.api.CrowdinAPI;
+import org.digitalmediaserver.crowdin.api.GraphQLMetadataProvider;
+import org.digitalmediaserver.crowdin.api.MetadataProvider;
+import org.digitalmediaserver.crowdin.api.RestMetadataProvider;
 import org.digitalmediaserver.crowdin.api.response.BranchInfo;
+import org.digitalmediaserver.crowdin.configuration.BuildVariant;
 import org.digitalmediaserver.crowdin.configuration.StatusFile;
 import org.digitalmediaserver.crowdin.configuration.TranslationFileSet;
+import org.digitalmediaserver.crowdin.tool.ConcurrencyUtil;
+import org.digitalmediaserver.crowdin.tool.ConcurrencyUtil.DaemonThreadFactory;
+import org.digitalmediaserver.crowdin.tool.FileUtil;
 import org.digitalmediaserver.crowdin.tool.GitUtil;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -203,6 +222,58 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 		rootBranch = branch;
 	}
 
+	/**
+	 * The Crowdin branches to fetch and deploy instead of the branch matching
+	 * the current Git branch. Each element is either a branch name or a
+	 * pattern where {@code *} matches any sequence of characters and
+	 * {@code ?} matches any single character. An element equal to
+	 * {@link #rootBranch} represents the Crowdin "root branch".
+	 */
+	@Parameter(property = "branches")
+	protected List<String> branches;
+
+	/**
+	 * Sets the {@link #branches} value.
+	 *
+	 * @param branches the branch names or patterns to set.
+	 */
+	protected void setBranches(List<String> branches) {
+		this.branches = branches;
+	}
+
+	/**
+	 * The folder the translations for each of the {@link #branches} are
+	 * deployed to, in a subfolder named after the branch that mirrors the
+	 * layout of the project folder.
+	 */
+	@Parameter(property = "branchesDeployFolder", defaultValue = "${project.build.directory}/crowdin-branches")
+	protected File branchesDeployFolder;
+
+	/**
+	 * Sets the {@link #branchesDeployFolder} value.
+	 *
+	 * @param branchesDeployFolder the folder to set.
+	 */
+	protected void setBranchesDeployFolder(File branchesDeployFolder) {
+		this.branchesDeployFolder = branchesDeployFolder;
+	}
+
+	/**
+	 * A list of {@link BuildVariant} elements that defines sets of build
+	 * options to build, fetch and deploy translations with concurrently.
+	 */
+	@Parameter(property = "buildVariants")
+	protected List<BuildVariant> buildVariants;
+
+	/**
+	 * Sets the {@link BuildVariant}s.
+	 *
+	 * @param buildVariants the {@link BuildVariant}s to set.
+	 */
+	protected void setBuildVariants(List<BuildVariant> buildVariants) {
+		this.buildVariants = buildVariants;
+	}
+
 	/**
 	 * Server id in settings.xml, whose {@code <password>} is the API token to
 	 * use.
@@ -291,6 +362,52 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 		this.server = server;
 	}
 
+	/**
+	 * Whether to retrieve the project metadata, like branches, folders and
+	 * files, with a single Crowdin GraphQL query instead of several REST
+	 * requests. The REST API is used if the query fails.
+	 */
+	@Parameter(property = "graphQLMetadata", defaultValue = "false")
+	protected boolean graphQLMetadata;
+
+	/**
+	 * Sets the {@link #graphQLMetadata} value.
+	 *
+	 * @param graphQLMetadata the value to set.
+	 */
+	protected void setGraphQLMetadata(boolean graphQLMetadata) {
+		this.graphQLMetadata = graphQLMetadata;
+	}
+
+	/** The {@link MetadataProvider} or {@code null} if not yet created */
+	protected MetadataProvider metadata;
+
+	/**
+	 * Sets the {@link MetadataProvider} to use.
+	 *
+	 * @param metadata the {@link MetadataProvider} to set.
+	 */
+	protected void setMetadata(MetadataProvider metadata) {
+		this.metadata = metadata;
+	}
+
+	/**
+	 * Returns the {@link MetadataProvider} to use, creating it according to
+	 * {@link #graphQLMetadata} if needed. {@link #client} and {@link #server}
+	 * must be initialized.
+	 *
+	 * @return The {@link MetadataProvider}.
+	 */
+	@Nonnull
+	protected synchronized MetadataProvider getMetadata() {
+		if (metadata == null) {
+			metadata = graphQLMetadata ?
+				new GraphQLMetadataProvider(client, projectId, server.getPassword(), getLog()) :
+				new RestMetadataProvider(client, projectId, server.getPassword(), getLog());
+		}
+		return metadata;
+	}
+
 	/**
 	 * Initializes {@link #server} by retrieving the appropriate {@link Server}
 	 * instance from the Maven settings and validating its settings.
@@ -359,6 +476,84 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 		return "unknown";
 	}
 
+	/**
+	 * The current Git branch name being resolved in the background, or
+	 * {@code null} if it's resolved when needed.
+	 */
+	@Nullable
+	protected Future<String> gitBranch;
+
+	/**
+	 * Sets the {@link #gitBranch} value.
+	 *
+	 * @param gitBranch the {@link Future} Git branch name to set.
+	 */
+	protected void setGitBranch(@Nullable Future<String> gitBranch) {
+		this.gitBranch = gitBranch;
+	}
+
+	/**
+	 * Initializes this {@link Mojo} for communicating with Crowdin. The
+	 * startup tasks run concurrently and are only joined where they depend on
+	 * each other: The server settings are validated on the calling thread
+	 * while the configuration is validated and the HTTP client is created in
+	 * the background, and this method returns when these are done.
+	 * <p>
+	 * The current Git branch is resolved in the background, and isn't waited
+	 * for until {@link #getBranch} needs it. That way the first Crowdin
+	 * requests don't have to wait for Git.
+	 *
+	 * @param validateFileSets whether to validate the
+	 *            {@link TranslationFileSet}s.
+	 * @param validateStatusFiles whether to validate the {@link StatusFile}s.
+	 * @throws MojoExecutionException If an error occurs during initialization.
+	 */
+	protected void initializeConcurrently(
+		final boolean validateFileSets,
+		final boolean validateStatusFiles
+	) throws MojoExecutionException {
+		initializeParameters();
+		ExecutorService executor = ConcurrencyUtil.createThreadPool("crowdin-startup", 3);
+		try {
+			if (gitBranch == null && !Boolean.TRUE.equals(disableBranches) && !isMultiBranch()) {
+				gitBranch = executor.submit(new Callable<String>() {
+
+					@Override
+					public String call() throws MojoExecutionException {
+						return resolveGitBranch();
+					}
+				});
+			}
+			List<Callable<Void>> tasks = new ArrayList<>(2);
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() throws MojoExecutionException {
+					if (validateFileSets) {
+						TranslationFileSet.initialize(translationFileSets);
+					}
+					if (validateStatusFiles) {
+						StatusFile.initialize(statusFiles);
+					}
+					return null;
+				}
+			});
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() throws MojoExecutionException {
+					createClient();
+					return null;
+				}
+			});
+			initializeServer();
+			ConcurrencyUtil.invokeAll(executor, tasks, "Initialization failed");
+		} finally {
+			// Lets the Git branch resolution finish
+			executor.shutdown();
+		}
+	}
+
 	/**
 	 * Initializes the {@link Mojo} parameters since they are set via reflection
 	 * and can't be handled in the constructor.
@@ -367,6 +562,59 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 	 */
 	protected void initializeParameters() throws MojoExecutionException {
 		downloadFolderPath = downloadFolder != null ?  downloadFolder.toPath() : null;
+		BuildVariant.initialize(buildVariants);
+		if (isMultiBranch() && isMultiVariant()) {
+			throw new MojoExecutionException("\"branches\" and \"buildVariants\" can't be combined");
+		}
+	}
+
+	/**
+	 * @return {@code true} if {@link #branches} are configured, so that each
+	 *         branch has its own subfolder in {@link #downloadFolder},
+	 *         {@code false} otherwise.
+	 */
+	protected boolean isMultiBranch() {
+		return branches != null && !branches.isEmpty();
+	}
+
+	/**
+	 * @return {@code true} if {@link #buildVariants} are configured, so that
+	 *         each variant has its own subfolder in {@link #downloadFolder},
+	 *         {@code false} otherwise.
+	 */
+	protected boolean isMultiVariant() {
+		return buildVariants != null && !buildVariants.isEmpty();
+	}
+
+	/**
+	 * Finds the branch or variant subfolders in {@link #downloadFolder} when
+	 * {@link #branches} or {@link #buildVariants} are configured. Hidden
+	 * folders and folders used while replacing a subfolder are ignored.
+	 *
+	 * @return The sorted {@link List} of subfolder names.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	@Nonnull
+	protected List<String> findSubfolders() throws IOException {
+		List<String> result = new ArrayList<>();
+		if (!Files.isDirectory(downloadFolderPath)) {
+			return result;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(downloadFolderPath)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				if (
+					!name.startsWith(".") &&
+					!name.contains(STAGING_FOLDER_SUFFIX) &&
+					!name.contains(TRASH_FOLDER_SUFFIX) &&
+					Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)
+				) {
+					result.add(name);
+				}
+			}
+		}
+		Collections.sort(result);
+		return result;
 	}
 
 	/**
@@ -388,7 +636,7 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 	 *
 	 * @param create whether the branch should be created at Crowdin if it
 	 *            doesn't exist.
-	 * @param branches a {@link List} of {@link BranchInfo} if it's already
+	 * @param branchInfos a {@link List} of {@link BranchInfo} if it's already
 	 *            possessed, {@code null} to make this method retrieve it.
 	 * @return The {@link BranchInfo} or {@code null} if the current git branch
 	 *         is the Crowdin root, or if branches are disabled.
@@ -397,30 +645,15 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 	@Nullable
 	protected BranchInfo getBranch(
 		boolean create,
-		@Nullable List<BranchInfo> branches
+		@Nullable List<BranchInfo> branchInfos
 	) throws MojoExecutionException {
 		if (Boolean.TRUE.equals(disableBranches)) {
 			getLog().info("Branches are disabled, working only with Crowdin \"root branch\"");
 			return null;
 		}
-		Path gitFolder;
-		if (isBlank(gitBaseFolder)) {
-			gitFolder = project.getBasedir().toPath();
-		} else {
-			try {
-				gitFolder = Paths.get(gitBaseFolder);
-			} catch (InvalidPathException e) {
-				throw new MojoExecutionException("Unable to resolve \"" + gitBaseFolder + "\": " + e.getMessage(), e);
-			}
-			if (!gitFolder.isAbsolute()) {
-				gitFolder = project.getBasedir().toPath().resolve(gitFolder).normalize();
-			}
-		}
-		getLog().info("Determining git branch in repository \"" + gitFolder.toString() + '\"');
-		String branch = GitUtil.getBranch(gitFolder, getLog());
-		if (isBlank(branch)) {
-			throw new MojoExecutionException("Could not determine current git branch");
-		}
+		String branch = gitBranch == null ?
+			resolveGitBranch() :
+			ConcurrencyUtil.getResult(gitBranch, "Could not determine current git branch");
 		if (branch.equals(rootBranch)) {
 			getLog().info("Git branch is root branch \"" + branch + "\"");
 			return null;
@@ -428,10 +661,10 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 		getLog().info("Git branch is \"" + branch + "\"");
 
 		String token = server.getPassword();
-		if (branches == null) {
-			branches = CrowdinAPI.listBranches(client, projectId, token, branch, getLog());
+		if (branchInfos == null) {
+			branchInfos = getMetadata().listBranches(branch);
 		}
-		for (BranchInfo branchInfo : branches) {
+		for (BranchInfo branchInfo : branchInfos) {
 			if (branch.equals(branchInfo.getName())) {
 				getLog().info("Found branch \"" + branch + "\" on Crowdin");
 				return branchInfo;
@@ -448,6 +681,36 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 		return result;
 	}
 
+	/**
+	 * Resolves the name of the current Git branch in the Git repository
+	 * specified by {@link #gitBaseFolder}.
+	 *
+	 * @return The name of the current Git branch.
+	 * @throws MojoExecutionException If the branch can't be determined.
+	 */
+	@Nonnull
+	protected String resolveGitBranch() throws MojoExecutionException {
+		Path gitFolder;
+		if (isBlank(gitBaseFolder)) {
+			gitFolder = project.getBasedir().toPath();
+		} else {
+			try {
+				gitFolder = Paths.get(gitBaseFolder);
+			} catch (InvalidPathException e) {
+				throw new MojoExecutionException("Unable to resolve \"" + gitBaseFolder + "\": " + e.getMessage(), e);
+			}
+			if (!gitFolder.isAbsolute()) {
+				gitFolder = project.getBasedir().toPath().resolve(gitFolder).normalize();
+			}
+		}
+		getLog().info("Determining git branch in repository \"" + gitFolder.toString() + '\"');
+		String branch = GitUtil.getBranch(gitFolder, getLog());
+		if (isBlank(branch)) {
+			throw new MojoExecutionException("Could not determine current git branch");
+		}
+		return branch;
+	}
+
 	/**
 	 * Deletes all files and folders in {@link #downloadFolder}.
 	 *
@@ -501,4 +764,167 @@ public abstract class AbstractCrowdinMojo extends AbstractMojo {
 			}
 		}
 	}
+
+	/**
+	 * Returns the staging folder, a sibling of {@link #downloadFolder} that new
+	 * downloads are extracted into before it replaces {@link #downloadFolder}.
+	 *
+	 * @return The staging folder {@link Path}.
+	 */
+	@Nonnull
+	protected Path getStagingFolder() {
+		Path folder = downloadFolderPath.toAbsolutePath().normalize();
+		return folder.resolveSibling(folder.getFileName() + STAGING_FOLDER_SUFFIX);
+	}
+
+	/**
+	 * Finds any folders holding replaced downloads that haven't been deleted
+	 * yet, sorted oldest first.
+	 *
+	 * @return The {@link List} of trash folders.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	@Nonnull
+	protected List<Path> findTrashFolders() throws IOException {
+		Path folder = downloadFolderPath.toAbsolutePath().normalize();
+		Path parent = folder.getParent();
+		List<Path> result = new ArrayList<>();
+		if (parent == null || !Files.isDirectory(parent)) {
+			return result;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+			parent,
+			folder.getFileName() + TRASH_FOLDER_SUFFIX + "*"
+		)) {
+			for (Path path : stream) {
+				if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+					result.add(path);
+				}
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Restores {@link #downloadFolder} if a previous run was interrupted while
+	 * replacing it, and schedules deletion of any leftover staging or trash
+	 * folders in the background.
+	 *
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void recoverDownloadFolder() throws MojoExecutionException {
+		List<Path> leftovers;
+		try {
+			leftovers = findTrashFolders();
+			if (!Files.exists(downloadFolderPath) && !leftovers.isEmpty()) {
+				// Interrupted between the renames, restore the last complete download
+				Path restore = leftovers.remove(leftovers.size() - 1);
+				getLog().warn("Restoring download folder \"" + downloadFolderPath + "\" from \"" + restore + "\"");
+				Files.move(restore, downloadFolderPath, StandardCopyOption.ATOMIC_MOVE);
+			}
+			Path stagingFolder = getStagingFolder();
+			if (Files.exists(stagingFolder, LinkOption.NOFOLLOW_LINKS)) {
+				// An incomplete staging folder is moved out of the way to be deleted
+				Path trash = createTrashFolderPath();
+				Files.move(stagingFolder, trash, StandardCopyOption.ATOMIC_MOVE);
+				leftovers.add(trash);
+			}
+		} catch (IOException e) {
+			throw new MojoExecutionException(
+				"Failed to recover download folder \"" + downloadFolderPath + "\": " + e.getMessage(),
+				e
+			);
+		}
+		deleteInBackground(leftovers);
+	}
+
+	/**
+	 * Replaces {@link #downloadFolder} with the specified staging folder by
+	 * renaming. The previous {@link #downloadFolder} is deleted in the
+	 * background.
+	 *
+	 * @param stagingFolder the completed staging folder.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void swapDownloadFolder(@Nonnull Path stagingFolder) throws MojoExecutionException {
+		Path trash = null;
+		try {
+			if (Files.exists(downloadFolderPath)) {
+				trash = createTrashFolderPath();
+				Files.move(downloadFolderPath, trash, StandardCopyOption.ATOMIC_MOVE);
+			}
+			Files.move(stagingFolder, downloadFolderPath, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new MojoExecutionException(
+				"Failed to replace download folder \"" + downloadFolderPath + "\": " + e.getMessage(),
+				e
+			);
+		}
+		if (trash != null) {
+			deleteInBackground(Collections.singletonList(trash));
+		}
+	}
+
+	/**
+	 * Deletes any leftover staging or trash folders synchronously.
+	 *
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void deleteLeftoverFolders() throws MojoExecutionException {
+		try {
+			List<Path> leftovers = findTrashFolders();
+			leftovers.add(getStagingFolder());
+			for (Path folder : leftovers) {
+				if (Files.exists(folder, LinkOption.NOFOLLOW_LINKS)) {
+					getLog().info("Deleting \"" + folder + "\"");
+					FileUtil.deleteRecursively(folder);
+				}
+			}
+		} catch (IOException e) {
+			throw new MojoExecutionException("Failed to delete leftover download folders: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Deletes the specified folders on a background daemon thread. Anything
+	 * that isn't deleted before the JVM exits will be deleted on the next run.
+	 *
+	 * @param folders the folders to delete.
+	 */
+	protected void deleteInBackground(@Nonnull final List<Path> folders) {
+		if (folders.isEmpty()) {
+			return;
+		}
+		final Log logger = getLog();
+		new DaemonThreadFactory("crowdin-cleanup").newThread(new Runnable() {
+
+			@Override
+			public void run() {
+				for (Path folder : folders) {
+					try {
+						FileUtil.deleteRecursively(folder);
+					} catch (IOException e) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Failed to delete \"" + folder + "\": " + e.getMessage());
+						}
+					}
+				}
+			}
+		}).start();
+	}
+
+	/**
+	 * @return A new unique trash folder {@link Path}.
+	 */
+	@Nonnull
+	private Path createTrashFolderPath() {
+		Path folder = downloadFolderPath.toAbsolutePath().normalize();
+		String prefix = folder.getFileName() + TRASH_FOLDER_SUFFIX + "-" + System.currentTimeMillis();
+		Path result = folder.resolveSibling(prefix);
+		for (int i = 1; Files.exists(result, LinkOption.NOFOLLOW_LINKS); i++) {
+			result = folder.resolveSibling(prefix + "-" + i);
+		}
+		return result;
+	}
 }
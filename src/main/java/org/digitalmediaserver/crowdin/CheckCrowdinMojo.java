@@ -0,0 +1,146 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin;
+
+import static org.digitalmediaserver.crowdin.tool.Constants.*;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.digitalmediaserver.crowdin.api.response.BranchInfo;
+import org.digitalmediaserver.crowdin.configuration.BuildVariant;
+import org.digitalmediaserver.crowdin.tool.RemoteStamp;
+
+
+/**
+ * Checks whether the translations in {@link AbstractCrowdinMojo#downloadFolder}
+ * are up to date, by comparing the project's last activity and the source
+ * file revisions at Crowdin with those recorded by the previous fetch.
+ */
+@Mojo(name = "check", defaultPhase = LifecyclePhase.NONE)
+public class CheckCrowdinMojo extends FetchCrowdinMojo {
+
+	/**
+	 * Whether to fail if the translations aren't up to date.
+	 */
+	@Parameter(property = "failIfStale", defaultValue = "true")
+	protected boolean failIfStale;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		initializeConcurrently(false, false);
+
+		if (isMultiVariant()) {
+			BranchInfo branch = getBranch();
+			for (BuildVariant variant : buildVariants) {
+				check(
+					createVariantFetch(variant),
+					downloadFolderPath.resolve(variant.getName()),
+					branch,
+					"Translations for build variant \"" + variant.getName() + "\""
+				);
+			}
+			return;
+		}
+		if (!isMultiBranch()) {
+			check(this, downloadFolderPath, getBranch(), "Translations");
+			return;
+		}
+		Map<String, BranchInfo> matched = resolveBranches(
+			getMetadata().listBranches(null)
+		);
+		if (matched.isEmpty()) {
+			throw new MojoExecutionException("No Crowdin branches match " + branches);
+		}
+		for (Entry<String, BranchInfo> entry : matched.entrySet()) {
+			check(
+				this,
+				downloadFolderPath.resolve(entry.getKey()),
+				entry.getValue(),
+				"Translations for branch \"" + entry.getKey() + "\""
+			);
+		}
+	}
+
+	/**
+	 * Checks whether the translations in the specified download folder are up
+	 * to date.
+	 *
+	 * @param fetch the {@link FetchCrowdinMojo} whose build options the
+	 *            translations are fetched with.
+	 * @param folder the download folder.
+	 * @param branch the {@link BranchInfo} or {@code null} for the Crowdin
+	 *            "root branch".
+	 * @param description the description of the translations to log.
+	 * @throws MojoExecutionException If an error occurs during the operation,
+	 *             or if the translations are stale and {@link #failIfStale}
+	 *             is {@code true}.
+	 */
+	protected void check(
+		@Nonnull FetchCrowdinMojo fetch,
+		@Nonnull Path folder,
+		@Nullable BranchInfo branch,
+		@Nonnull String description
+	) throws MojoExecutionException {
+		Log logger = getLog();
+		RemoteStamp previous = RemoteStamp.load(folder.resolve(STATE_FOLDER).resolve(REMOTE_STAMP_FILENAME), logger);
+		if (previous == null) {
+			reportStale(description + " haven't been fetched");
+			return;
+		}
+		RemoteStamp current = fetch.createRemoteStamp(branch);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Previous remote stamp: " + previous);
+			logger.debug("Current remote stamp: " + current);
+		}
+		if (!current.isSameState(previous)) {
+			reportStale(description + " have changed at Crowdin since the last fetch");
+			return;
+		}
+		StringBuilder sb = new StringBuilder(description).append(" are up to date");
+		if (previous.getBuildId() != null) {
+			sb.append(" with build ").append(previous.getBuildId());
+			if (previous.getBuildFinishedAt() != null) {
+				sb.append(" finished at ").append(new Date(previous.getBuildFinishedAt().longValue()));
+			}
+		}
+		logger.info(sb.toString());
+	}
+
+	/**
+	 * Reports that the translations are stale, either by failing or by
+	 * logging a warning depending on {@link #failIfStale}.
+	 *
+	 * @param message the message describing why the translations are stale.
+	 * @throws MojoExecutionException If {@link #failIfStale} is {@code true}.
+	 */
+	protected void reportStale(String message) throws MojoExecutionException {
+		if (failIfStale) {
+			throw new MojoExecutionException(message + ", translations must be fetched");
+		}
+		getLog().warn(message + ", translations must be fetched");
+	}
+}
@@ -23,7 +23,8 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 
 /**
- * Deletes all content in {@link AbstractCrowdinMojo#downloadFolder}.
+ * Deletes all content in {@link AbstractCrowdinMojo#downloadFolder} and any
+ * leftover staging or trash folders.
  */
 @Mojo(name = "clean", defaultPhase = LifecyclePhase.CLEAN)
 public class CleanDownloadsMojo extends AbstractCrowdinMojo {
@@ -32,5 +33,6 @@ public class CleanDownloadsMojo extends AbstractCrowdinMojo {
 	public void execute() throws MojoExecutionException {
 		initializeParameters();
 		cleanDownloadFolder();
+		deleteLeftoverFolders();
 	}
 }
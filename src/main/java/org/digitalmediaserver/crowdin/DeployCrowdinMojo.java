@@ -20,10 +20,19 @@ package org.digitalmediaserver.crowdin;
 
 import static org.digitalmediaserver.crowdin.tool.Constants.*;
 import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
-import static org.digitalmediaserver.crowdin.tool.StringUtil.isNotBlank;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
@@ -31,39 +40,69 @@ import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
-import org.digitalmediaserver.crowdin.api.CrowdinAPI;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.digitalmediaserver.crowdin.api.FileType;
-import org.digitalmediaserver.crowdin.configuration.PathPlaceholder;
-import org.digitalmediaserver.crowdin.configuration.Conversion;
+import org.digitalmediaserver.crowdin.configuration.BuildVariant;
+import org.digitalmediaserver.crowdin.configuration.DeployMode;
 import org.digitalmediaserver.crowdin.configuration.StatusFile;
 import org.digitalmediaserver.crowdin.configuration.TranslationFileSet;
+import org.digitalmediaserver.crowdin.tool.BufferedLog;
+import org.digitalmediaserver.crowdin.tool.ConcurrencyUtil;
+import org.digitalmediaserver.crowdin.tool.ConversionTable;
+import org.digitalmediaserver.crowdin.tool.DeployManifest;
+import org.digitalmediaserver.crowdin.tool.DeployManifest.TargetRecord;
 import org.digitalmediaserver.crowdin.tool.FIFOProperties;
+import org.digitalmediaserver.crowdin.tool.FileSetMatcher;
+import org.digitalmediaserver.crowdin.tool.FileSetMatcher.Match;
+import org.digitalmediaserver.crowdin.tool.FileSetMatcher.MatchInfo;
 import org.digitalmediaserver.crowdin.tool.FileUtil;
 import org.digitalmediaserver.crowdin.tool.GroupSortedProperties;
 import org.digitalmediaserver.crowdin.tool.ISO639;
 import org.digitalmediaserver.crowdin.tool.NSISUtil;
 import org.digitalmediaserver.crowdin.tool.OrderedProperties;
+import org.digitalmediaserver.crowdin.tool.PathTemplate;
+import org.digitalmediaserver.crowdin.tool.PathTemplate.Token;
+import org.digitalmediaserver.crowdin.tool.PathTemplate.Type;
+import org.digitalmediaserver.crowdin.tool.StringUtil;
+import org.digitalmediaserver.crowdin.tool.Transcoder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 
@@ -75,6 +114,108 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 @SuppressFBWarnings("UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD")
 public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 
+	/**
+	 * The folder to deploy to instead of the project folder, mirroring the
+	 * layout of the project folder, or {@code null} to deploy to the
+	 * configured locations.
+	 */
+	@Nullable
+	protected Path targetRoot;
+
+	/**
+	 * Sets the {@link #targetRoot} value.
+	 *
+	 * @param targetRoot the folder to deploy to or {@code null}.
+	 */
+	protected void setTargetRoot(@Nullable Path targetRoot) {
+		this.targetRoot = targetRoot;
+	}
+
+	/**
+	 * Whether this instance deploys a single branch or build variant from a
+	 * subfolder of {@link AbstractCrowdinMojo#downloadFolder}.
+	 */
+	protected boolean nested;
+
+	/**
+	 * The name of the subfolder of {@link AbstractCrowdinMojo#downloadFolder}
+	 * that a nested instance deploys from, or {@code null}.
+	 */
+	@Nullable
+	protected String subfolder;
+
+	/** The resolved {@link ISO639} instances by Crowdin code */
+	private final Map<String, ISO639> languages = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of translation files to deploy at the same time. If
+	 * {@code 0} or less, the number of available processors is used.
+	 */
+	@Parameter(property = "deployThreads", defaultValue = "0")
+	protected int deployThreads;
+
+	/**
+	 * Sets the {@link #deployThreads} value.
+	 *
+	 * @param deployThreads the number of files to deploy at the same time.
+	 */
+	protected void setDeployThreads(int deployThreads) {
+		this.deployThreads = deployThreads;
+	}
+
+	/**
+	 * Whether to skip translation files whose source content and options are
+	 * unchanged since the previous deployment, as long as the deployed file
+	 * is also unchanged. What has been deployed is recorded in a manifest in
+	 * the project build folder.
+	 */
+	@Parameter(property = "incrementalDeploy", defaultValue = "true")
+	protected boolean incrementalDeploy;
+
+	/**
+	 * Sets the {@link #incrementalDeploy} value.
+	 *
+	 * @param incrementalDeploy the value to set.
+	 */
+	protected void setIncrementalDeploy(boolean incrementalDeploy) {
+		this.incrementalDeploy = incrementalDeploy;
+	}
+
+	/**
+	 * Whether to remove previously deployed files whose source has
+	 * disappeared, unless they have been modified. Only used when
+	 * {@link #incrementalDeploy} is {@code true}.
+	 */
+	@Parameter(property = "removeObsoleteFiles", defaultValue = "false")
+	protected boolean removeObsoleteFiles;
+
+	/**
+	 * Sets the {@link #removeObsoleteFiles} value.
+	 *
+	 * @param removeObsoleteFiles the value to set.
+	 */
+	protected void setRemoveObsoleteFiles(boolean removeObsoleteFiles) {
+		this.removeObsoleteFiles = removeObsoleteFiles;
+	}
+
+	/**
+	 * How translation files in {@link AbstractCrowdinMojo#downloadFolder}
+	 * that don't need to be transformed are deployed. If
+	 * {@link DeployMode#move}, previously deployed files aren't removed when
+	 * their source disappears, since the sources are consumed.
+	 */
+	@Parameter(property = "deployMode", defaultValue = "copy")
+	protected DeployMode deployMode;
+
+	/**
+	 * Sets the {@link #deployMode} value.
+	 *
+	 * @param deployMode the {@link DeployMode} to use.
+	 */
+	protected void setDeployMode(@Nullable DeployMode deployMode) {
+		this.deployMode = deployMode;
+	}
+
 	@Override
 	public void execute() throws MojoExecutionException {
 		initializeParameters();
@@ -93,9 +234,20 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 			throw new MojoExecutionException("No filesets are defined");
 		}
 
+		if (isMultiBranch() && !nested) {
+			doExecuteBranches();
+			return;
+		}
+		if (isMultiVariant() && !nested) {
+			doExecuteVariants();
+			return;
+		}
+
 		if (Files.isDirectory(downloadFolderPath)) {
-			final Set<MatchInfo> fileSetMatches = buildFileSetMatches();
+			final FileSetMatcher fileSetMatcher = FileSetMatcher.compile(translationFileSets, getLog());
 			final Path statusFile = downloadFolderPath.resolve(STATUS_DOWNLOAD_FILENAME);
+			final SortedMap<String, TranslationSource> sources = new TreeMap<>();
+			final boolean[] foundStatusFile = new boolean[1];
 
 			try {
 				Files.walkFileTree(downloadFolderPath, new FileVisitor<Path>() {
@@ -108,6 +260,10 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 							getLog().debug("Skipping folder \"" + dir + "\"");
 							return FileVisitResult.SKIP_SUBTREE;
 						}
+						if (!fileSetMatcher.acceptsFolder(FileUtil.formatPath(downloadFolderPath.relativize(dir), false))) {
+							getLog().debug("Skipping folder \"" + dir + "\" since no translation files in it would be deployed");
+							return FileVisitResult.SKIP_SUBTREE;
+						}
 						getLog().debug("Checking folder \"" + dir + "\"");
 						return FileVisitResult.CONTINUE;
 					}
@@ -115,181 +271,20 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 					@Override
 					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
 						if (statusFile != null && statusFile.equals(file)) {
-							deployStatusFiles(file);
+							foundStatusFile[0] = true;
 							return FileVisitResult.CONTINUE;
 						}
-
-						ParseResult parseResult;
-						try {
-							parseResult = parseFileName(file, fileSetMatches);
-						} catch (IOException e) {
-							getLog().error("Unable to process file \"" + file.toAbsolutePath() + "\": " + e.getMessage());
-							return FileVisitResult.CONTINUE;
-						} catch (MojoExecutionException e) {
-							throw new IOException(
-								"An error occurred while processing file \"" + file.toAbsolutePath() + "\"",
-								e
+						if (!attrs.isRegularFile()) {
+							getLog().error(
+								"Unable to process file \"" + file.toAbsolutePath() + "\": File path isn't a regular file"
 							);
-						}
-						if (parseResult == null) {
-							getLog().warn("Couldn't parse \"" + file + "\" - skipping file");
 							return FileVisitResult.CONTINUE;
 						}
-						TranslationFileSet fileSet = parseResult.getMatchInfo().getFileSet();
-
-						// Include & exclude
-						List<String> includes = fileSet.getIncludes();
-						if (includes != null && includes.isEmpty()) {
-							includes = null;
-						}
-						List<String> excludes = fileSet.getExcludes();
-						if (excludes != null && excludes.isEmpty()) {
-							excludes = null;
-						}
-						if (includes != null || excludes != null) {
-							int downloadFolderLength = downloadFolderPath.getNameCount();
-							if (file.getNameCount() - downloadFolderLength < 1) {
-								throw new AssertionError(
-									"Internal error in DeployCrowdinMojo.doExecute(), nameCount=" +
-									file.getNameCount() + ", downloadFolderLength=" + downloadFolderLength
-								);
-							}
-							String relativeFile = FileUtil.formatPath(
-								file.subpath(downloadFolderLength, file.getNameCount()),
-								false
-							);
-							Path fileNamePath = file.getFileName();
-							String fileName = fileNamePath == null ? null : fileNamePath.toString();
-							if (includes != null) {
-								boolean found = false;
-								for (String include : includes) {
-									Pattern pattern = createFilterPattern(include);
-									if (
-										pattern != null && (
-											pattern.matcher(relativeFile.toString()).matches() ||
-											pattern.matcher(fileName).matches()
-									)) {
-										found = true;
-										break;
-									}
-								}
-								if (!found) {
-									getLog().debug(
-										"Skipping file \"" + file + "\"because it's not included in fileset \"" + fileSet + "\""
-									);
-									return FileVisitResult.CONTINUE;
-								}
-							}
-							if (excludes != null && !excludes.isEmpty()) {
-								for (String exclude : excludes) {
-									Pattern pattern = createFilterPattern(exclude);
-									if (
-										pattern != null && (
-											pattern.matcher(relativeFile.toString()).matches() ||
-											pattern.matcher(fileName).matches()
-									)) {
-										getLog().debug(
-											"Skipping file \"" + file + "\"because it is excluded in fileset \"" + fileSet + "\""
-										);
-										return FileVisitResult.CONTINUE;
-									}
-								}
-							}
-						}
-
-						Path targetFile = fileSet.getLanguageFilesFolder().toPath().resolve(parseResult.getTargetFile());
-						Path targetFolder = targetFile.getParent();
-						if (targetFolder != null && !Files.exists(targetFolder)) {
-							getLog().info("Creating folder \"" + targetFolder + "\"");
-							Files.createDirectories(targetFolder);
-						}
-						getLog().info("Deploying file \"" + targetFile.toAbsolutePath() + "\" from \"" + file + "\"");
-
-						String commentHeader;
-						if (Boolean.TRUE.equals(fileSet.getAddComment())) {
-							if (isBlank(fileSet.getComment())) {
-								commentHeader = isBlank(comment) ? DEFAULT_COMMENT : comment;
-							} else {
-								commentHeader = fileSet.getComment();
-							}
-						} else {
-							commentHeader = null;
-						}
-						String currentLineSeparator = fileSet.getLineSeparator() != null ? fileSet.getLineSeparator() : lineSeparator;
-						if (currentLineSeparator != null) {
-							currentLineSeparator = currentLineSeparator.replace("\\r", "\r").replace("\\n", "\n");
-						}
 
-						if (fileSet.getType() == FileType.properties) {
-							OrderedProperties orderedProperties = Boolean.TRUE.equals(fileSet.getSortLines()) ?
-								new GroupSortedProperties() :
-								new FIFOProperties();
-							try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-								orderedProperties.load(reader);
-							}
-							try (BufferedWriter writer = Files.newBufferedWriter(targetFile, fileSet.getCharset())) {
-								orderedProperties.store(
-									writer,
-									commentHeader,
-									currentLineSeparator,
-									!Boolean.FALSE.equals(fileSet.getEscapeUnicode())
-								);
-							}
-						} else {
-							if (Boolean.TRUE.equals(fileSet.getSortLines())) {
-								throw new IOException("Invalid option", new MojoExecutionException(
-									"Option \"sortLines\" isn't supported for " + fileSet.getType() + " files"
-								));
-							}
-							if (Boolean.TRUE.equals(fileSet.getEscapeUnicode())) {
-								throw new IOException("Invalid option", new MojoExecutionException(
-									"Option \"escapeUnicode\" isn't supported for " + fileSet.getType() + " files"
-								));
-							}
-
-							if (
-								!fileSet.getCharset().equals(StandardCharsets.UTF_8) ||
-								Boolean.TRUE.equals(fileSet.getAddComment()) ||
-								currentLineSeparator != null ||
-								fileSet.getType() == FileType.nsh ||
-								Boolean.TRUE.equals(fileSet.getWriteBOM())
-							) {
-								// "Manual" copy
-								try (
-									BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
-									BufferedWriter writer = Files.newBufferedWriter(targetFile, fileSet.getCharset());
-								) {
-									if (Boolean.TRUE.equals(fileSet.getWriteBOM())) {
-										writer.write("\ufeff");
-									}
-									if (Boolean.TRUE.equals(fileSet.getAddComment())) {
-										if (fileSet.getType() == FileType.html || fileSet.getType() == FileType.xml) {
-											writer.write("<!-- ");
-											writer.write(commentHeader);
-											writer.write(" -->");
-										} else {
-											writer.write(fileSet.getCommentTag());
-											writer.write(' ');
-											writer.write(commentHeader);
-										}
-										OrderedProperties.writeNewLine(writer, currentLineSeparator);
-										OrderedProperties.writeNewLine(writer, currentLineSeparator);
-									}
-
-									for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-										if (fileSet.getType() == FileType.nsh) {
-											line = NSISUtil.convertLineToNSIS(line);
-										}
-										writer.write(line);
-										OrderedProperties.writeNewLine(writer, currentLineSeparator);
-									}
-									writer.flush();
-								}
-							} else {
-								// Filesystem copy
-								copyFile(file, targetFile, true);
-							}
-						}
+						sources.put(
+							FileUtil.formatPath(downloadFolderPath.relativize(file), false),
+							new FileSource(file)
+						);
 						return FileVisitResult.CONTINUE;
 					}
 
@@ -305,6 +300,10 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 						return FileVisitResult.CONTINUE;
 					}
 				});
+				deployFiles(sources, fileSetMatcher);
+				if (foundStatusFile[0]) {
+					deployStatusFiles(statusFile);
+				}
 			} catch (IOException e) {
 				if (e.getCause() instanceof MojoExecutionException) {
 					throw (MojoExecutionException) e.getCause();
@@ -319,302 +318,985 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 		}
 	}
 
-	@Nullable
-	private ParseResult parseFileName(@Nullable Path path, Set<MatchInfo> fileSetMatchInfos) throws MojoExecutionException, IOException {
-		if (path == null || !Files.isRegularFile(path)) {
-			throw new IOException(path == null ?
-				"File path is null" :
-				"File path isn't a regular file: \"" + path.toAbsolutePath() + "\""
+	/**
+	 * Deploys the translations in each branch subfolder of
+	 * {@link AbstractCrowdinMojo#downloadFolder} to its own subfolder of
+	 * {@link AbstractCrowdinMojo#branchesDeployFolder}.
+	 *
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void doExecuteBranches() throws MojoExecutionException {
+		List<String> branchNames;
+		try {
+			branchNames = findSubfolders();
+		} catch (IOException e) {
+			throw new MojoExecutionException(
+				"Failed to list branches in \"" + downloadFolderPath + "\": " + e.getMessage(),
+				e
 			);
 		}
-		if (!path.startsWith(downloadFolderPath)) {
+		if (branchNames.isEmpty()) {
 			throw new MojoExecutionException(
-				"Internal error: downloadFolderPath \"" + downloadFolderPath.toAbsolutePath() +
-				"\" isn't part of the file path \"" + path.toAbsolutePath() + "\""
+				"Crowdin download folder (" + downloadFolderPath + ") doesn't contain any branches. Call fetch first."
 			);
 		}
+		for (String branchName : branchNames) {
+			getLog().info("Deploying translations for branch \"" + branchName + "\"");
+			createBranchDeploy(branchName).doExecute();
+		}
+	}
 
-		int downloadFolderLength = downloadFolderPath.getNameCount();
-		String crowdinCode = path.getName(downloadFolderLength).toString();
-		if (path.getNameCount() - downloadFolderLength < 2) {
-			// File is not inside a Crowdin-code subfolder, so it's not a translation file
-			return null;
+	/**
+	 * Creates a new {@link DeployCrowdinMojo} for deploying the specified
+	 * branch from its subfolder of {@link AbstractCrowdinMojo#downloadFolder}
+	 * to its subfolder of {@link AbstractCrowdinMojo#branchesDeployFolder},
+	 * using the same configuration as this instance.
+	 *
+	 * @param branchName the branch name.
+	 * @return The new {@link DeployCrowdinMojo}.
+	 * @throws MojoExecutionException If
+	 *             {@link AbstractCrowdinMojo#branchesDeployFolder} isn't
+	 *             configured.
+	 */
+	@Nonnull
+	public DeployCrowdinMojo createBranchDeploy(@Nonnull String branchName) throws MojoExecutionException {
+		if (branchesDeployFolder == null) {
+			throw new MojoExecutionException("\"branchesDeployFolder\" must be configured to deploy branches");
 		}
-		String fileName = FileUtil.formatPath(path.subpath(downloadFolderLength + 1, path.getNameCount()), false);
-		Matcher matcher = null;
-		MatchInfo matchedfileSetMatchInfo = null;
+		return createNestedDeploy(branchName, branchesDeployFolder.toPath().resolve(branchName));
+	}
 
-		for (MatchInfo fileSetMatchInfo : fileSetMatchInfos) {
-			Matcher m = fileSetMatchInfo.getPattern().matcher(fileName);
-			if (m.matches()) {
-				matchedfileSetMatchInfo = fileSetMatchInfo;
-				matcher = m;
-				break;
+	/**
+	 * Deploys the translations in each build variant subfolder of
+	 * {@link AbstractCrowdinMojo#downloadFolder}, in the order the
+	 * {@link AbstractCrowdinMojo#buildVariants} are configured.
+	 *
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void doExecuteVariants() throws MojoExecutionException {
+		for (BuildVariant variant : buildVariants) {
+			if (!Files.isDirectory(downloadFolderPath.resolve(variant.getName()))) {
+				throw new MojoExecutionException(
+					"Crowdin download folder (" + downloadFolderPath + ") doesn't contain build variant \"" +
+					variant.getName() + "\". Call fetch first."
+				);
 			}
 		}
-		if (matcher == null || matchedfileSetMatchInfo == null) {
-			throw new IOException("Unable to match file \"" + path.toAbsolutePath() + "\" to any translation file set");
+		for (BuildVariant variant : buildVariants) {
+			getLog().info("Deploying translations for build variant \"" + variant.getName() + "\"");
+			createVariantDeploy(variant).doExecute();
 		}
+	}
 
-		StringBuilder targetFileName = new StringBuilder();
-		List<Conversion> conversions = matchedfileSetMatchInfo.getFileSet().getConversions();
-		if (isBlank(matchedfileSetMatchInfo.getFileSet().getTargetFileName())) {
-			// Convert placeholders
-			int groupCount = matcher.groupCount();
-			if (groupCount > 0) {
-				int literalStart, literalEnd;
-				for (int group = 1; group <= groupCount; group++) {
-					literalStart = group == 1 ? 0 : matcher.end(group - 1);
-					literalEnd = matcher.start(group);
-					if (literalEnd - literalStart > 0) {
-						targetFileName.append(fileName.substring(literalStart, literalEnd));
-					}
-					targetFileName.append(convertPlaceholder(matcher.group(group), conversions));
+	/**
+	 * Creates a new {@link DeployCrowdinMojo} for deploying the specified
+	 * {@link BuildVariant} from its subfolder of
+	 * {@link AbstractCrowdinMojo#downloadFolder} to its
+	 * {@link BuildVariant#getDeployFolder()}, or to the configured locations
+	 * if it has none, using the same configuration as this instance.
+	 *
+	 * @param variant the {@link BuildVariant}.
+	 * @return The new {@link DeployCrowdinMojo}.
+	 */
+	@Nonnull
+	public DeployCrowdinMojo createVariantDeploy(@Nonnull BuildVariant variant) {
+		return createNestedDeploy(
+			variant.getName(),
+			variant.getDeployFolder() == null ? null : variant.getDeployFolder().toPath()
+		);
+	}
+
+	/**
+	 * Creates a new {@link DeployCrowdinMojo} for deploying the branch or
+	 * build variant with the specified subfolder name, depending on whether
+	 * {@link AbstractCrowdinMojo#branches} or
+	 * {@link AbstractCrowdinMojo#buildVariants} are configured.
+	 *
+	 * @param name the subfolder name.
+	 * @return The new {@link DeployCrowdinMojo}.
+	 * @throws MojoExecutionException If no matching deployment can be
+	 *             created.
+	 */
+	@Nonnull
+	public DeployCrowdinMojo createSubfolderDeploy(@Nonnull String name) throws MojoExecutionException {
+		if (isMultiVariant()) {
+			for (BuildVariant variant : buildVariants) {
+				if (name.equals(variant.getName())) {
+					return createVariantDeploy(variant);
 				}
-				targetFileName.append(fileName.substring(matcher.end(groupCount)));
-			} else {
-				targetFileName.append(fileName);
-			}
-			String crowdinPath = FileUtil.formatPath(matchedfileSetMatchInfo.getFileSet().getCrowdinPath(), true);
-			if (crowdinPath != null && targetFileName.toString().startsWith(crowdinPath)) {
-				targetFileName = new StringBuilder(targetFileName.substring(crowdinPath.length()));
 			}
-		} else {
-			String remaining = matchedfileSetMatchInfo.getFileSet().getTargetFileName();
-			while (remaining.length() > 0) {
-				Matcher m = PLACEHOLDER_PATTERN.matcher(remaining);
-				if (m.find()) {
-					if (m.start() > 0) {
-						targetFileName.append(remaining.substring(0, m.start()));
-					}
-					String replacement = null;
-					PathPlaceholder placeholder = PathPlaceholder.typeOf(m.group());
-					if (placeholder != null) {
-						for (int i = 0; i < matchedfileSetMatchInfo.getPlaceHolders().size(); i++) {
-							if (placeholder == matchedfileSetMatchInfo.getPlaceHolders().get(i)) {
-								replacement = convertPlaceholder(matcher.group(i + 1), conversions);
-								break;
-							}
-						}
-					}
-					if (replacement == null) {
-						String group = placeholder == null ? m.group().toLowerCase(Locale.ROOT) : null;
-						if (
-							placeholder == PathPlaceholder.LANGUAGE ||
-							placeholder == PathPlaceholder.TWO_LETTER ||
-							placeholder == PathPlaceholder.THREE_LETTER ||
-							"%shortest_iso639_code%".equals(group)
-						) {
-							ISO639 language = getLanguageFromCrowdinCode(crowdinCode);
-							if (language == null) {
-								throw new IOException(
-									"Unable to resolve ISO639 instance for Crowdin code \"" + crowdinCode + "\""
-								);
-							}
-							if (placeholder == PathPlaceholder.LANGUAGE) {
-								replacement = convertPlaceholder(language.getName(), conversions);
-							} else if (placeholder == PathPlaceholder.TWO_LETTER) {
-								replacement = convertPlaceholder(language.get2LetterCode(), conversions);
-							} else if (placeholder == PathPlaceholder.THREE_LETTER) {
-								replacement = convertPlaceholder(language.getPart2T(), conversions);
-							} else {
-								// %shortest_iso639_code%
-								replacement = convertPlaceholder(language.getShortestCode(), conversions);
-							}
-						} else if (placeholder != null) {
-							throw new MojoExecutionException(
-								"targetFileName refers to placeholder \"" + placeholder.getIdentifier() +
-								"\" not found in the export pattern \"" +
-								matchedfileSetMatchInfo.getFileSet().getExportPattern() + "\""
-							);
-						} else if ("%crowdin_code%".equals(group)) {
-							replacement = convertPlaceholder(crowdinCode, conversions);
-						} else if ("%crowdin_code_with_underscore%".equals(group)) {
-							replacement = convertPlaceholder(crowdinCode, conversions).replace('-', '_');
-							replacement = convertPlaceholder(replacement, conversions);
-						} else {
-							throw new MojoExecutionException("Unknown placeholder \"" + m.group() + "\"");
-						}
+			throw new MojoExecutionException("Unknown build variant \"" + name + "\"");
+		}
+		return createBranchDeploy(name);
+	}
+
+	/**
+	 * Creates a new nested {@link DeployCrowdinMojo} for deploying from the
+	 * specified subfolder of {@link AbstractCrowdinMojo#downloadFolder}.
+	 *
+	 * @param name the subfolder name.
+	 * @param root the folder to deploy to or {@code null} to deploy to the
+	 *            configured locations.
+	 * @return The new {@link DeployCrowdinMojo}.
+	 */
+	@Nonnull
+	protected DeployCrowdinMojo createNestedDeploy(@Nonnull String name, @Nullable Path root) {
+		DeployCrowdinMojo result = new DeployCrowdinMojo();
+		result.setDownloadFolder(downloadFolderPath.resolve(name));
+		result.setTranslationFileSets(translationFileSets);
+		result.setStatusFiles(statusFiles);
+		result.setLineSeparator(lineSeparator);
+		result.setComment(comment);
+		result.setProject(project);
+		result.setTargetRoot(root);
+		result.setDeployThreads(deployThreads);
+		result.setIncrementalDeploy(incrementalDeploy);
+		result.setRemoveObsoleteFiles(removeObsoleteFiles);
+		result.setDeployMode(deployMode);
+		result.subfolder = name;
+		result.nested = true;
+		result.setLog(getLog());
+		return result;
+	}
+
+	/**
+	 * Resolves the location to deploy the specified target file to. If
+	 * {@link #targetRoot} is set, the target's location relative to the
+	 * project folder is resolved against {@link #targetRoot}.
+	 *
+	 * @param target the configured target file.
+	 * @return The file to deploy to.
+	 * @throws IOException If the target is outside the project folder when
+	 *             {@link #targetRoot} is set. The cause is a
+	 *             {@link MojoExecutionException}.
+	 */
+	@Nonnull
+	protected Path resolveTarget(@Nonnull Path target) throws IOException {
+		if (targetRoot == null) {
+			return target;
+		}
+		Path baseFolder = project.getBasedir().toPath().toAbsolutePath().normalize();
+		Path absoluteTarget = target.toAbsolutePath().normalize();
+		if (!absoluteTarget.startsWith(baseFolder)) {
+			throw new IOException("Invalid target", new MojoExecutionException(
+				"Target \"" + target + "\" is outside the project folder and can't be deployed to " + targetRoot
+			));
+		}
+		return targetRoot.resolve(baseFolder.relativize(absoluteTarget));
+	}
+
+	/**
+	 * Deploys the translation files directly from the specified translations
+	 * archive, without extracting them to
+	 * {@link AbstractCrowdinMojo#downloadFolder} first.
+	 *
+	 * @param archive the translations archive.
+	 * @param filterBranchNames the branch names to filter out or {@code null}.
+	 * @return The number of deployed files.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	public int deployArchive(
+		@Nonnull Path archive,
+		@Nullable Set<String> filterBranchNames
+	) throws MojoExecutionException {
+		if (translationFileSets == null || translationFileSets.isEmpty()) {
+			throw new MojoExecutionException("No filesets are defined");
+		}
+
+		FileSetMatcher fileSetMatcher = FileSetMatcher.compile(translationFileSets, getLog());
+		try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+			SortedMap<String, TranslationSource> sources = new TreeMap<>();
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (entry.isDirectory()) {
+					continue;
+				}
+				if (filterBranchNames != null && FetchCrowdinMojo.isBranchEntry(entry.getName(), filterBranchNames)) {
+					if (getLog().isDebugEnabled()) {
+						getLog().debug("Filtering out branch element \"" + entry.getName() + "\"");
 					}
-					targetFileName.append(replacement);
-					remaining = remaining.substring(m.end());
-				} else {
-					targetFileName.append(remaining);
-					remaining = "";
+					continue;
 				}
+				if (isHidden(entry.getName())) {
+					getLog().debug("Skipping hidden archive entry \"" + entry.getName() + "\"");
+					continue;
+				}
+				sources.put(entry.getName(), new ZipEntrySource(zipFile, entry));
+			}
+			return deployFiles(sources, fileSetMatcher);
+		} catch (IOException e) {
+			if (e.getCause() instanceof MojoExecutionException) {
+				throw (MojoExecutionException) e.getCause();
 			}
+			throw new MojoExecutionException("An I/O error occurred while deploying translations: " + e.getMessage(), e);
+		}
+	}
 
+	/**
+	 * Deploys the status files from the specified translations status
+	 * document, without writing it to {@link AbstractCrowdinMojo#downloadFolder}
+	 * first.
+	 *
+	 * @param status the translations status JSON document.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	public void deployStatus(@Nonnull String status) throws MojoExecutionException {
+		if (statusFiles == null || statusFiles.isEmpty()) {
+			return;
 		}
-		if (isBlank(targetFileName)) {
-			throw new IOException("Resolved target filename for file \"" + path.toAbsolutePath() + "\" is blank");
+		try {
+			deployStatusFiles(new StringReader(status), "Crowdin");
+		} catch (IOException e) {
+			if (e.getCause() instanceof MojoExecutionException) {
+				throw (MojoExecutionException) e.getCause();
+			}
+			throw new MojoExecutionException("An I/O error occurred while deploying status files: " + e.getMessage(), e);
 		}
-		return new ParseResult(Paths.get(targetFileName.toString()), matchedfileSetMatchInfo);
 	}
 
-	private void deployStatusFiles(@Nonnull Path file) throws IOException {
-		// Translations status
-		if (statusFiles != null && !statusFiles.isEmpty()) {
-			Gson gson = CrowdinAPI.getGsonInstance();
-			JsonElement document;
-			try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-				document = gson.fromJson(reader, JsonElement.class);
-			} catch (JsonParseException e) {
-				throw new IOException("Could not parse JSON file \"" + file + "\"", e);
+	/**
+	 * Deploys the specified translation files to their configured locations.
+	 * First, the target of each file is resolved in the order of the relative
+	 * paths and any missing target folders are created. Then the files are
+	 * transformed and written by up to {@link #deployThreads} threads, and
+	 * the log output of each file is logged in the order of the relative
+	 * paths when all are done.
+	 * <p>
+	 * If {@link #incrementalDeploy} is {@code true}, files whose source
+	 * content and options are unchanged since the previous deployment are
+	 * skipped if the target file is also unchanged. If
+	 * {@link #removeObsoleteFiles} is also {@code true}, previously deployed
+	 * files whose source has disappeared are removed.
+	 *
+	 * @param sources the {@link TranslationSource}s sorted by their path
+	 *            relative to the download folder or archive root, using
+	 *            {@code /} as separator.
+	 * @param fileSetMatcher the {@link FileSetMatcher} to match with.
+	 * @return The number of deployed files.
+	 * @throws IOException If an error occurs while resolving the targets. If
+	 *             the cause is a {@link MojoExecutionException}, the error is
+	 *             fatal.
+	 * @throws MojoExecutionException If two files resolve to the same target
+	 *             or if a file can't be deployed, in which case the remaining
+	 *             files are abandoned.
+	 */
+	protected int deployFiles(
+		@Nonnull SortedMap<String, TranslationSource> sources,
+		@Nonnull FileSetMatcher fileSetMatcher
+	) throws IOException, MojoExecutionException {
+		List<Deployment> deployments = new ArrayList<>();
+		Map<Path, Deployment> targets = new HashMap<>();
+		for (Entry<String, TranslationSource> entry : sources.entrySet()) {
+			Deployment deployment = resolveDeployment(entry.getKey(), entry.getValue(), fileSetMatcher);
+			if (deployment == null) {
+				continue;
 			}
-			for (StatusFile fileSet : statusFiles) {
-
-				getLog().info("Deploying status file \"" + fileSet.getTargetFile() + "\" from \"" + file  + "\"");
+			Deployment existing = targets.put(deployment.getTargetFile().toAbsolutePath().normalize(), deployment);
+			if (existing != null) {
+				throw new MojoExecutionException(
+					"Both \"" + existing.getSource() + "\" and \"" + deployment.getSource() +
+					"\" resolve to target file \"" + deployment.getTargetFile().toAbsolutePath() + "\""
+				);
+			}
+			deployments.add(deployment);
+		}
+		if (deployments.isEmpty()) {
+			return 0;
+		}
 
-				String commentHeader = null;
-				String currentLineSeparator = fileSet.getLineSeparator() != null ? fileSet.getLineSeparator() : lineSeparator;
-				if (currentLineSeparator != null) {
-					currentLineSeparator = currentLineSeparator.replace("\\r", "\r").replace("\\n", "\n");
-				}
+		Set<Path> targetFolders = new HashSet<>();
+		for (Deployment deployment : deployments) {
+			Path targetFolder = deployment.getTargetFile().getParent();
+			if (targetFolder != null && targetFolders.add(targetFolder) && !Files.exists(targetFolder)) {
+				getLog().info("Creating folder \"" + targetFolder + "\"");
+				Files.createDirectories(targetFolder);
+			}
+		}
 
-				if (fileSet.getType() == FileType.properties) {
-					// Properties status file
-					if (Boolean.TRUE.equals(fileSet.getAddComment())) {
-						if (isBlank(fileSet.getComment())) {
-							commentHeader = isBlank(comment) ? DEFAULT_COMMENT : comment;
-						} else {
-							commentHeader = fileSet.getComment();
-						}
-					}
+		final Path baseFolder = project.getBasedir().toPath().toAbsolutePath().normalize();
+		Path manifestFile = getDeployManifestFile();
+		final DeployManifest previous = incrementalDeploy ? DeployManifest.load(manifestFile, getLog()) : null;
+		final AtomicInteger unchanged = new AtomicInteger();
+		List<BufferedLog> logs = new ArrayList<>(deployments.size());
+		List<Callable<TargetRecord>> tasks = new ArrayList<>(deployments.size());
+		for (final Deployment deployment : deployments) {
+			final BufferedLog logger = new BufferedLog(getLog());
+			logs.add(logger);
+			tasks.add(new Callable<TargetRecord>() {
 
-					OrderedProperties statusProperties = Boolean.TRUE.equals(fileSet.getSortLines()) ?
-						new GroupSortedProperties() :
-						new FIFOProperties();
-					JsonElement element;
-					JsonObject childObject, object;
-					String languageTag;
+				@Override
+				public TargetRecord call() throws MojoExecutionException {
 					try {
-						for (JsonElement child : document.getAsJsonArray()) {
-							childObject = child.getAsJsonObject();
-							element = childObject.get("languageId");
-							if (element != null) {
-								languageTag = convertPlaceholder(element.getAsString(), fileSet.getConversions());
-								element = childObject.get("language");
-								if (element != null) {
-									statusProperties.put(languageTag + ".name", element.getAsJsonObject().get("name").getAsString());
-								}
-								element = childObject.get("phrases");
-								if (element != null) {
-									object = element.getAsJsonObject();
-									statusProperties.put(languageTag + ".phrases", object.get("total").getAsString());
-									statusProperties.put(languageTag + ".phrases.translated", object.get("translated").getAsString());
-									statusProperties.put(languageTag + ".phrases.approved", object.get("approved").getAsString());
-								}
-								element = childObject.get("words");
-								if (element != null) {
-									object = element.getAsJsonObject();
-									statusProperties.put(languageTag + ".words", object.get("total").getAsString());
-									statusProperties.put(languageTag + ".words.translated", object.get("translated").getAsString());
-									statusProperties.put(languageTag + ".words.approved", object.get("approved").getAsString());
-								}
-								element = childObject.get("translationProgress");
-								if (element != null) {
-									statusProperties.put(languageTag + ".progress.translated", element.getAsString());
-								}
-								element = childObject.get("approvalProgress");
-								if (element != null) {
-									statusProperties.put(languageTag + ".progress.approved", element.getAsString());
-								}
+						if (previous == null) {
+							deployFile(deployment, logger);
+							return null;
+						}
+						String sourceDigest = deployment.getSource().getDigest(DeployManifest.DIGEST_ALGORITHM);
+						String optionsDigest = getOptionsDigest(deployment.getFileSet());
+						TargetRecord record = previous.get(getManifestPath(baseFolder, deployment.getTargetFile()));
+						if (
+							record != null &&
+							sourceDigest.equals(record.getSourceDigest()) &&
+							optionsDigest.equals(record.getOptionsDigest()) &&
+							record.isUnchanged(deployment.getTargetFile())
+						) {
+							if (logger.isDebugEnabled()) {
+								logger.debug("Skipping unchanged file \"" + deployment.getTargetFile().toAbsolutePath() + "\"");
 							}
+							unchanged.incrementAndGet();
+							return record;
 						}
-					} catch (IllegalStateException | UnsupportedOperationException e) {
-						throw new IOException("Unable to parse status file \"" + file + "\": " + e.getMessage(), e);
-					}
-					try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(fileSet.getTargetFile()), fileSet.getCharset())) {
-						statusProperties.store(
-							writer,
-							commentHeader,
-							currentLineSeparator,
-							!Boolean.FALSE.equals(fileSet.getEscapeUnicode())
+						if (!deployFile(deployment, logger)) {
+							unchanged.incrementAndGet();
+						}
+						return TargetRecord.create(
+							deployment.getRelativePath(),
+							sourceDigest,
+							optionsDigest,
+							deployment.getTargetFile()
 						);
-					}
-				} else if (fileSet.getType() == FileType.json) {
-					// JSON status file
-					if (Boolean.TRUE.equals(fileSet.getSortLines())) {
-						throw new IOException("Invalid option", new MojoExecutionException(
-							"Option \"sortLines\" isn't supported for " + fileSet.getType() + " files"
-						));
-					}
-					if (Boolean.TRUE.equals(fileSet.getEscapeUnicode())) {
-						throw new IOException("Invalid option", new MojoExecutionException(
-							"Option \"escapeUnicode\" isn't supported for " + fileSet.getType() + " files"
-						));
-					}
-
-					if (Boolean.TRUE.equals(fileSet.getAddComment())) {
-						throw new IOException("Invalid option", new MojoExecutionException(
-							"Option \"addComment\" isn't supported for " + fileSet.getType() + " files"
-						));
-					}
-
-					Charset charset = fileSet.getCharset();
-					if (charset == null) {
-						charset = StandardCharsets.UTF_8;
-					}
-					if (!charset.toString().startsWith("UTF")) {
-						throw new IOException("Invalid charset", new MojoExecutionException(
-							"Only Unicode character sets are supported for " + fileSet.getType() + " files"
-						));
-					}
-
-					List<Conversion> conversions = fileSet.getConversions();
-					if (conversions != null && !conversions.isEmpty() && document.isJsonArray()) {
-						JsonElement element;
-						JsonObject childObject;
-						String currentCode, convertedCode;
-						for (JsonElement child : document.getAsJsonArray()) {
-							if (child.isJsonObject()) {
-								childObject = child.getAsJsonObject();
-								element = childObject.get("languageId");
-								if (element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
-									convertedCode = convertPlaceholder(
-										currentCode = element.getAsJsonPrimitive().getAsString(),
-										conversions
-									);
-									if (!convertedCode.equals(currentCode)) {
-										childObject.add("languageId", new JsonPrimitive(convertedCode));
-									}
-								}
-							}
+					} catch (IOException e) {
+						if (e.getCause() instanceof MojoExecutionException) {
+							throw (MojoExecutionException) e.getCause();
 						}
+						throw new MojoExecutionException(
+							"An I/O error occurred while deploying \"" + deployment.getSource() + "\": " + e.getMessage(),
+							e
+						);
 					}
+				}
+			});
+		}
+		int threads = deployThreads > 0 ? deployThreads : Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = ConcurrencyUtil.createThreadPool("crowdin-deploy", Math.min(threads, tasks.size()));
+		List<TargetRecord> records;
+		try {
+			records = ConcurrencyUtil.invokeAll(executor, tasks, "Failed to deploy translation files");
+		} finally {
+			executor.shutdown();
+			for (BufferedLog logger : logs) {
+				logger.replay(getLog());
+			}
+		}
 
-					String formattedDocument = new GsonBuilder()
-						.setPrettyPrinting()
-						.disableHtmlEscaping()
-						.create()
-						.toJson(document);
-
-					// Gson always outputs \n (next version is expected to change that), so replace them if necessary
-					if (currentLineSeparator == null) {
-						currentLineSeparator = System.lineSeparator();
-					}
-					if (!"\n".equals(currentLineSeparator)) {
-						formattedDocument = formattedDocument.replace("\n", currentLineSeparator);
-					}
-
-					try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(fileSet.getTargetFile()), charset)) {
-						writer.write(formattedDocument);
+		if (previous != null) {
+			DeployManifest manifest = new DeployManifest();
+			for (int i = 0; i < deployments.size(); i++) {
+				manifest.put(getManifestPath(baseFolder, deployments.get(i).getTargetFile()), records.get(i));
+			}
+			int removed = 0;
+			for (Entry<String, TargetRecord> entry : previous.getTargets().entrySet()) {
+				String path = entry.getKey();
+				TargetRecord record = entry.getValue();
+				if (manifest.contains(path)) {
+					continue;
+				}
+				if (!removeObsoleteFiles || deployMode == DeployMode.move || sources.containsKey(record.getSource())) {
+					// Not removing, the source still exists but wasn't deployed, or was moved, keep track of the target
+					manifest.put(path, record);
+					continue;
+				}
+				Path target = baseFolder.resolve(path);
+				if (record.isUnchanged(target)) {
+					getLog().info("Removing obsolete file \"" + target + "\"");
+					try {
+						Files.delete(target);
+						removed++;
+					} catch (IOException e) {
+						getLog().warn("Failed to remove obsolete file \"" + target + "\": " + e.getMessage());
 					}
-				} else {
-					throw new IOException("Invalid file type \"" + fileSet.getType() + "\" for status file \"" + file + "\"");
+				} else if (Files.exists(target)) {
+					getLog().warn("Not removing obsolete file \"" + target + "\" because it has been modified");
 				}
 			}
+			try {
+				manifest.save(manifestFile);
+			} catch (IOException e) {
+				getLog().warn("Failed to write deploy manifest \"" + manifestFile + "\": " + e.getMessage());
+			}
+			getLog().info(
+				"Updated " + (deployments.size() - unchanged.get()) + " files, kept " + unchanged.get() +
+				" unchanged files and removed " + removed + " obsolete files"
+			);
 		}
+		return deployments.size();
 	}
 
-	@Nullable
-	private static Pattern createFilterPattern(@Nullable String filter) {
-		if (isBlank(filter)) {
-			return null;
+	/**
+	 * Returns the path of the specified target file relative to the project
+	 * folder, as used in the {@link DeployManifest}.
+	 *
+	 * @param baseFolder the absolute and normalized project folder.
+	 * @param targetFile the target file.
+	 * @return The relative path using {@code /} as separator.
+	 */
+	@Nonnull
+	protected static String getManifestPath(@Nonnull Path baseFolder, @Nonnull Path targetFile) {
+		return FileUtil.formatPath(baseFolder.relativize(targetFile.toAbsolutePath().normalize()).toString(), false);
+	}
+
+	/**
+	 * @return The {@link DeployManifest} file for this deployment, located in
+	 *         the project build folder.
+	 */
+	@Nonnull
+	protected Path getDeployManifestFile() {
+		String buildFolder = project.getBuild() == null ? null : project.getBuild().getDirectory();
+		Path folder = isBlank(buildFolder) ?
+			project.getBasedir().toPath().resolve("target") :
+			Paths.get(buildFolder);
+		if (subfolder == null) {
+			return folder.resolve(DEPLOY_MANIFEST_BASENAME + ".json");
 		}
-		Matcher matcher = FILTER_DELIMITERS.matcher(filter);
+		return folder.resolve(DEPLOY_MANIFEST_BASENAME + "-" + subfolder + ".json");
+	}
 
-		StringBuilder sb = new StringBuilder(filter.length() * 2);
+	/**
+	 * Calculates a digest of the options that affect how files belonging to
+	 * the specified {@link TranslationFileSet} are transformed.
+	 *
+	 * @param fileSet the {@link TranslationFileSet}.
+	 * @return The lower-case hexadecimal {@link DeployManifest#DIGEST_ALGORITHM}
+	 *         digest.
+	 * @throws IOException If the digest algorithm isn't supported.
+	 */
+	@Nonnull
+	protected String getOptionsDigest(@Nonnull TranslationFileSet fileSet) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		sb.append("type=").append(fileSet.getType())
+			.append("\ncharset=").append(fileSet.getCharset())
+			.append("\ncomment=").append(getCommentHeader(fileSet))
+			.append("\nlineSeparator=").append(getLineSeparator(fileSet))
+			.append("\nsortLines=").append(fileSet.getSortLines())
+			.append("\nescapeUnicode=").append(fileSet.getEscapeUnicode())
+			.append("\nwriteBOM=").append(fileSet.getWriteBOM());
+		MessageDigest digest = FileUtil.createMessageDigest(DeployManifest.DIGEST_ALGORITHM);
+		return StringUtil.toHexString(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Returns the comment to add to files belonging to the specified
+	 * {@link TranslationFileSet}.
+	 *
+	 * @param fileSet the {@link TranslationFileSet}.
+	 * @return The comment or {@code null} if no comment should be added.
+	 */
+	@Nullable
+	protected String getCommentHeader(@Nonnull TranslationFileSet fileSet) {
+		if (!Boolean.TRUE.equals(fileSet.getAddComment())) {
+			return null;
+		}
+		if (isBlank(fileSet.getComment())) {
+			return isBlank(comment) ? DEFAULT_COMMENT : comment;
+		}
+		return fileSet.getComment();
+	}
+
+	/**
+	 * Returns the line separator to use for files belonging to the specified
+	 * {@link TranslationFileSet}.
+	 *
+	 * @param fileSet the {@link TranslationFileSet}.
+	 * @return The line separator or {@code null} to keep the line separators
+	 *         of the source.
+	 */
+	@Nullable
+	protected String getLineSeparator(@Nonnull TranslationFileSet fileSet) {
+		String result = fileSet.getLineSeparator() != null ? fileSet.getLineSeparator() : lineSeparator;
+		return result == null ? null : result.replace("\\r", "\r").replace("\\n", "\n");
+	}
+
+	/**
+	 * Resolves where to deploy a single translation file.
+	 *
+	 * @param relativePath the path of the file relative to the download folder
+	 *            or archive root, using {@code /} as separator.
+	 * @param source the {@link TranslationSource} to read from.
+	 * @param fileSetMatcher the {@link FileSetMatcher} to match with.
+	 * @return The resulting {@link Deployment} or {@code null} if the file
+	 *         should be skipped.
+	 * @throws IOException If an error occurs during the operation. If the
+	 *             cause is a {@link MojoExecutionException}, the error is
+	 *             fatal.
+	 */
+	@Nullable
+	protected Deployment resolveDeployment(
+		@Nonnull String relativePath,
+		@Nonnull TranslationSource source,
+		@Nonnull FileSetMatcher fileSetMatcher
+	) throws IOException {
+		ParseResult parseResult;
+		try {
+			parseResult = parseFileName(relativePath, source, fileSetMatcher);
+		} catch (IOException e) {
+			getLog().error("Unable to process file \"" + source + "\": " + e.getMessage());
+			return null;
+		} catch (MojoExecutionException e) {
+			throw new IOException(
+				"An error occurred while processing file \"" + source + "\"",
+				e
+			);
+		}
+		if (parseResult == null) {
+			getLog().warn("Couldn't parse \"" + source + "\" - skipping file");
+			return null;
+		}
+		MatchInfo matchInfo = parseResult.getMatchInfo();
+		TranslationFileSet fileSet = matchInfo.getFileSet();
+
+		// Include & exclude
+		int slash = relativePath.lastIndexOf('/');
+		String fileName = slash < 0 ? relativePath : relativePath.substring(slash + 1);
+		if (!matchInfo.isIncluded(relativePath, fileName)) {
+			getLog().debug(
+				"Skipping file \"" + source + "\"because it's not included in fileset \"" + fileSet + "\""
+			);
+			return null;
+		}
+		if (matchInfo.isExcluded(relativePath, fileName)) {
+			getLog().debug(
+				"Skipping file \"" + source + "\"because it is excluded in fileset \"" + fileSet + "\""
+			);
+			return null;
+		}
+
+		return new Deployment(
+			relativePath,
+			source,
+			resolveTarget(fileSet.getLanguageFilesFolder().toPath().resolve(parseResult.getTargetFile())),
+			fileSet
+		);
+	}
+
+	/**
+	 * Transforms and deploys a single translation file to its resolved
+	 * location. The target folder must exist. The result is rendered in
+	 * memory, and the target file is only replaced if its content differs.
+	 *
+	 * @param deployment the {@link Deployment} to perform.
+	 * @param logger the {@link Log} to log to.
+	 * @return {@code true} if the target file was written, {@code false} if
+	 *         it already had the resulting content.
+	 * @throws IOException If an error occurs during the operation. If the
+	 *             cause is a {@link MojoExecutionException}, the error is
+	 *             fatal.
+	 */
+	protected boolean deployFile(@Nonnull Deployment deployment, @Nonnull Log logger) throws IOException {
+		TranslationSource source = deployment.getSource();
+		Path targetFile = deployment.getTargetFile();
+		TranslationFileSet fileSet = deployment.getFileSet();
+
+		String commentHeader = getCommentHeader(fileSet);
+		String currentLineSeparator = getLineSeparator(fileSet);
+
+		byte[] content;
+		if (fileSet.getType() == FileType.properties) {
+			OrderedProperties orderedProperties = Boolean.TRUE.equals(fileSet.getSortLines()) ?
+				new GroupSortedProperties() :
+				new FIFOProperties();
+			try (BufferedReader reader = source.newReader()) {
+				orderedProperties.load(reader);
+			}
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			try (BufferedWriter writer = newWriter(buffer, fileSet.getCharset())) {
+				orderedProperties.store(
+					writer,
+					commentHeader,
+					currentLineSeparator,
+					!Boolean.FALSE.equals(fileSet.getEscapeUnicode())
+				);
+			}
+			content = buffer.toByteArray();
+		} else {
+			if (Boolean.TRUE.equals(fileSet.getSortLines())) {
+				throw new IOException("Invalid option", new MojoExecutionException(
+					"Option \"sortLines\" isn't supported for " + fileSet.getType() + " files"
+				));
+			}
+			if (Boolean.TRUE.equals(fileSet.getEscapeUnicode())) {
+				throw new IOException("Invalid option", new MojoExecutionException(
+					"Option \"escapeUnicode\" isn't supported for " + fileSet.getType() + " files"
+				));
+			}
+
+			if (
+				!fileSet.getCharset().equals(StandardCharsets.UTF_8) ||
+				Boolean.TRUE.equals(fileSet.getAddComment()) ||
+				currentLineSeparator != null ||
+				fileSet.getType() == FileType.nsh ||
+				Boolean.TRUE.equals(fileSet.getWriteBOM())
+			) {
+				// "Manual" copy
+				String separator = currentLineSeparator == null ? System.lineSeparator() : currentLineSeparator;
+				Transcoder transcoder = Transcoder.get(StandardCharsets.UTF_8, fileSet.getCharset());
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				StringBuilder prefix = new StringBuilder();
+				if (Boolean.TRUE.equals(fileSet.getWriteBOM())) {
+					prefix.append('\ufeff');
+				}
+				if (Boolean.TRUE.equals(fileSet.getAddComment())) {
+					if (fileSet.getType() == FileType.html || fileSet.getType() == FileType.xml) {
+						prefix.append("<!-- ").append(commentHeader).append(" -->");
+					} else {
+						prefix.append(fileSet.getCommentTag()).append(' ').append(commentHeader);
+					}
+					prefix.append(separator).append(separator);
+				}
+				try (InputStream is = source.newInputStream()) {
+					transcoder.transcode(prefix, is, buffer, separator, fileSet.getType() == FileType.nsh ? NSISUtil.TO_NSIS_CONVERTER : null);
+				}
+				content = buffer.toByteArray();
+			} else if (
+				deployMode != null &&
+				deployMode != DeployMode.copy &&
+				source.getFile() != null
+			) {
+				return deployFile(source.getFile(), targetFile, logger);
+			} else {
+				// Raw copy
+				content = source.getContent();
+			}
+		}
+
+		if (FileUtil.writeIfDifferent(targetFile, content)) {
+			logger.info("Deploying file \"" + targetFile.toAbsolutePath() + "\" from \"" + source + "\"");
+			return true;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("File \"" + targetFile.toAbsolutePath() + "\" is already up to date");
+		}
+		return false;
+	}
+
+	/**
+	 * Deploys an untransformed translation file by moving it or by creating
+	 * a hard link to it, according to {@link #deployMode}. If hard links
+	 * aren't supported, the file is copied instead.
+	 *
+	 * @param sourceFile the file in {@link AbstractCrowdinMojo#downloadFolder}.
+	 * @param targetFile the resolved target file.
+	 * @param logger the {@link Log} to log to.
+	 * @return {@code true} if the target file was replaced, {@code false} if
+	 *         it already was up to date.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected boolean deployFile(
+		@Nonnull Path sourceFile,
+		@Nonnull Path targetFile,
+		@Nonnull Log logger
+	) throws IOException {
+		if (Files.exists(targetFile) && Files.isSameFile(sourceFile, targetFile)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("File \"" + targetFile.toAbsolutePath() + "\" is already up to date");
+			}
+			return false;
+		}
+		if (deployMode == DeployMode.move) {
+			logger.info("Moving file \"" + sourceFile + "\" to \"" + targetFile.toAbsolutePath() + "\"");
+			FileUtil.moveReplacing(sourceFile, targetFile);
+			return true;
+		}
+		if (FileUtil.linkReplacing(sourceFile, targetFile)) {
+			logger.info("Linking file \"" + targetFile.toAbsolutePath() + "\" to \"" + sourceFile + "\"");
+			return true;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Hard links aren't supported for \"" + targetFile.toAbsolutePath() + "\", copying instead");
+		}
+		if (FileUtil.writeIfDifferent(targetFile, Files.readAllBytes(sourceFile))) {
+			logger.info("Deploying file \"" + targetFile.toAbsolutePath() + "\" from \"" + sourceFile + "\"");
+			return true;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("File \"" + targetFile.toAbsolutePath() + "\" is already up to date");
+		}
+		return false;
+	}
+
+	/**
+	 * Creates a new {@link BufferedWriter} that writes to the specified
+	 * {@link OutputStream} using the specified {@link Charset}. Like
+	 * {@link Files#newBufferedWriter}, characters that can't be encoded are
+	 * reported as an error.
+	 *
+	 * @param outputStream the {@link OutputStream} to write to.
+	 * @param charset the {@link Charset} to use.
+	 * @return The new {@link BufferedWriter}.
+	 */
+	@Nonnull
+	protected static BufferedWriter newWriter(@Nonnull OutputStream outputStream, @Nonnull Charset charset) {
+		return new BufferedWriter(new OutputStreamWriter(outputStream, charset.newEncoder()));
+	}
+
+	/**
+	 * Evaluates whether any of the folder elements of the specified relative
+	 * path starts with {@code .}.
+	 *
+	 * @param relativePath the relative path using {@code /} as separator.
+	 * @return {@code true} if the path is hidden, {@code false} otherwise.
+	 */
+	protected static boolean isHidden(@Nonnull String relativePath) {
+		for (String element : FileUtil.splitPath(relativePath, true)) {
+			if (element.startsWith(".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Nullable
+	private ParseResult parseFileName(
+		@Nonnull String relativePath,
+		@Nonnull TranslationSource source,
+		@Nonnull FileSetMatcher fileSetMatcher
+	) throws MojoExecutionException, IOException {
+		int slash = relativePath.indexOf('/');
+		if (slash < 0) {
+			// File is not inside a Crowdin-code subfolder, so it's not a translation file
+			return null;
+		}
+		String crowdinCode = relativePath.substring(0, slash);
+		String fileName = relativePath.substring(slash + 1);
+		Match match = fileSetMatcher.match(fileName);
+		if (match == null) {
+			throw new IOException("Unable to match file \"" + source + "\" to any translation file set");
+		}
+		Matcher matcher = match.getMatcher();
+		MatchInfo matchedfileSetMatchInfo = match.getMatchInfo();
+
+		StringBuilder targetFileName = new StringBuilder();
+		ConversionTable conversions = matchedfileSetMatchInfo.getFileSet().getConversionTable();
+		PathTemplate template = matchedfileSetMatchInfo.getTargetFileTemplate();
+		if (template == null) {
+			// Convert placeholders
+			int groupCount = matcher.groupCount();
+			if (groupCount > 0) {
+				int literalStart, literalEnd;
+				for (int group = 1; group <= groupCount; group++) {
+					literalStart = group == 1 ? 0 : matcher.end(group - 1);
+					literalEnd = matcher.start(group);
+					if (literalEnd - literalStart > 0) {
+						targetFileName.append(fileName, literalStart, literalEnd);
+					}
+					targetFileName.append(convertPlaceholder(matcher.group(group), conversions));
+				}
+				targetFileName.append(fileName, matcher.end(groupCount), fileName.length());
+			} else {
+				targetFileName.append(fileName);
+			}
+			String crowdinPath = FileUtil.formatPath(matchedfileSetMatchInfo.getFileSet().getCrowdinPath(), true);
+			if (crowdinPath != null && targetFileName.toString().startsWith(crowdinPath)) {
+				targetFileName = new StringBuilder(targetFileName.substring(crowdinPath.length()));
+			}
+		} else {
+			ISO639 language = null;
+			for (Token token : template.getTokens()) {
+				switch (token.getType()) {
+					case LITERAL:
+						targetFileName.append(token.getText());
+						break;
+					case GROUP:
+						targetFileName.append(convertPlaceholder(matcher.group(token.getGroup()), conversions));
+						break;
+					case LANGUAGE:
+					case TWO_LETTER:
+					case THREE_LETTER:
+					case SHORTEST_CODE:
+						if (language == null) {
+							language = getLanguageFromCrowdinCode(crowdinCode);
+							if (language == null) {
+								throw new IOException(
+									"Unable to resolve ISO639 instance for Crowdin code \"" + crowdinCode + "\""
+								);
+							}
+						}
+						if (token.getType() == Type.LANGUAGE) {
+							targetFileName.append(convertPlaceholder(language.getName(), conversions));
+						} else if (token.getType() == Type.TWO_LETTER) {
+							targetFileName.append(convertPlaceholder(language.get2LetterCode(), conversions));
+						} else if (token.getType() == Type.THREE_LETTER) {
+							targetFileName.append(convertPlaceholder(language.getPart2T(), conversions));
+						} else {
+							targetFileName.append(convertPlaceholder(language.getShortestCode(), conversions));
+						}
+						break;
+					case CROWDIN_CODE:
+						targetFileName.append(convertPlaceholder(crowdinCode, conversions));
+						break;
+					case CROWDIN_CODE_WITH_UNDERSCORE:
+						targetFileName.append(convertPlaceholder(
+							convertPlaceholder(crowdinCode, conversions).replace('-', '_'),
+							conversions
+						));
+						break;
+					default:
+						throw new MojoExecutionException(token.getText());
+				}
+			}
+		}
+		if (isBlank(targetFileName)) {
+			throw new IOException("Resolved target filename for file \"" + source + "\" is blank");
+		}
+		return new ParseResult(Paths.get(targetFileName.toString()), matchedfileSetMatchInfo);
+	}
+
+	private void deployStatusFiles(@Nonnull Path file) throws IOException {
+		// Translations status
+		if (statusFiles != null && !statusFiles.isEmpty()) {
+			try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				deployStatusFiles(reader, file);
+			}
+		}
+	}
+
+	/**
+	 * Deploys all {@link #statusFiles} from the specified translations status
+	 * document in a single streaming pass. The languages are read one at a
+	 * time and handed to a {@link StatusSink} for each status file, so the
+	 * complete document is never held in memory.
+	 *
+	 * @param reader the {@link Reader} to read the translations status from.
+	 * @param source the source to use in log and error messages.
+	 * @throws IOException If an error occurs during the operation. If the
+	 *             cause is a {@link MojoExecutionException}, the error is
+	 *             fatal.
+	 */
+	private void deployStatusFiles(@Nonnull Reader reader, @Nonnull Object source) throws IOException {
+		if (statusFiles == null || statusFiles.isEmpty()) {
+			return;
+		}
+		List<Path> targetFiles = new ArrayList<>(statusFiles.size());
+		List<StatusSink> sinks = new ArrayList<>(statusFiles.size());
+		for (StatusFile fileSet : statusFiles) {
+			Path targetFile = resolveTarget(Paths.get(fileSet.getTargetFile()));
+			Path targetFolder = targetFile.toAbsolutePath().getParent();
+			if (targetRoot != null && targetFolder != null && !Files.exists(targetFolder)) {
+				Files.createDirectories(targetFolder);
+			}
+			getLog().info("Deploying status file \"" + targetFile + "\" from \"" + source + "\"");
+			targetFiles.add(targetFile);
+			sinks.add(createStatusSink(fileSet, source));
+		}
+
+		JsonReader jsonReader = new JsonReader(reader);
+		jsonReader.setLenient(true);
+		try {
+			if (jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+				jsonReader.beginArray();
+				for (StatusSink sink : sinks) {
+					sink.beginArray();
+				}
+				while (jsonReader.hasNext()) {
+					JsonElement element = JsonParser.parseReader(jsonReader);
+					for (StatusSink sink : sinks) {
+						sink.element(element);
+					}
+				}
+				jsonReader.endArray();
+				for (StatusSink sink : sinks) {
+					sink.endArray();
+				}
+			} else {
+				JsonElement document = JsonParser.parseReader(jsonReader);
+				for (StatusSink sink : sinks) {
+					sink.document(document);
+				}
+			}
+		} catch (JsonParseException | IllegalStateException | EOFException e) {
+			throw new IOException("Could not parse the translations status from \"" + source + "\"", e);
+		}
+		for (int i = 0; i < sinks.size(); i++) {
+			writeStatusFile(targetFiles.get(i), sinks.get(i).finish());
+		}
+	}
+
+	/**
+	 * Creates a {@link StatusSink} for the specified {@link StatusFile}.
+	 *
+	 * @param fileSet the {@link StatusFile}.
+	 * @param source the source to use in error messages.
+	 * @return The new {@link StatusSink}.
+	 * @throws IOException If the {@link StatusFile} configuration is invalid.
+	 */
+	@Nonnull
+	private StatusSink createStatusSink(@Nonnull StatusFile fileSet, @Nonnull Object source) throws IOException {
+		String currentLineSeparator = fileSet.getLineSeparator() != null ? fileSet.getLineSeparator() : lineSeparator;
+		if (currentLineSeparator != null) {
+			currentLineSeparator = currentLineSeparator.replace("\\r", "\r").replace("\\n", "\n");
+		}
+
+		if (fileSet.getType() == FileType.properties) {
+			String commentHeader = null;
+			if (Boolean.TRUE.equals(fileSet.getAddComment())) {
+				if (isBlank(fileSet.getComment())) {
+					commentHeader = isBlank(comment) ? DEFAULT_COMMENT : comment;
+				} else {
+					commentHeader = fileSet.getComment();
+				}
+			}
+			return new PropertiesStatusSink(fileSet, source, commentHeader, currentLineSeparator);
+		}
+
+		if (fileSet.getType() == FileType.json) {
+			if (Boolean.TRUE.equals(fileSet.getSortLines())) {
+				throw new IOException("Invalid option", new MojoExecutionException(
+					"Option \"sortLines\" isn't supported for " + fileSet.getType() + " files"
+				));
+			}
+			if (Boolean.TRUE.equals(fileSet.getEscapeUnicode())) {
+				throw new IOException("Invalid option", new MojoExecutionException(
+					"Option \"escapeUnicode\" isn't supported for " + fileSet.getType() + " files"
+				));
+			}
+
+			if (Boolean.TRUE.equals(fileSet.getAddComment())) {
+				throw new IOException("Invalid option", new MojoExecutionException(
+					"Option \"addComment\" isn't supported for " + fileSet.getType() + " files"
+				));
+			}
+
+			Charset charset = fileSet.getCharset();
+			if (charset == null) {
+				charset = StandardCharsets.UTF_8;
+			}
+			if (!charset.toString().startsWith("UTF")) {
+				throw new IOException("Invalid charset", new MojoExecutionException(
+					"Only Unicode character sets are supported for " + fileSet.getType() + " files"
+				));
+			}
+			return new JsonStatusSink(
+				fileSet.getConversionTable(),
+				charset,
+				currentLineSeparator == null ? System.lineSeparator() : currentLineSeparator
+			);
+		}
+		throw new IOException("Invalid file type \"" + fileSet.getType() + "\" for status file \"" + source + "\"");
+	}
+
+	private void writeStatusFile(@Nonnull Path targetFile, @Nonnull byte[] content) throws IOException {
+		if (!FileUtil.writeIfDifferent(targetFile, content) && getLog().isDebugEnabled()) {
+			getLog().debug("Status file \"" + targetFile + "\" is already up to date");
+		}
+	}
+
+	/**
+	 * Creates a {@link Pattern} from the specified filter, where {@code ?}
+	 * matches any single character, {@code *} matches any sequence of
+	 * characters and {@code \} is treated as {@code /}.
+	 *
+	 * @param filter the filter.
+	 * @return The compiled {@link Pattern} or {@code null} if {@code filter}
+	 *         is blank.
+	 */
+	@Nullable
+	protected static Pattern createFilterPattern(@Nullable String filter) {
+		if (isBlank(filter)) {
+			return null;
+		}
+		Matcher matcher = FILTER_DELIMITERS.matcher(filter);
+
+		StringBuilder sb = new StringBuilder(filter.length() * 2);
 		int next = 0;
 		String literal;
 		while (matcher.find()) {
@@ -646,119 +1328,248 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 		return Pattern.compile(sb.toString());
 	}
 
-	@Nonnull
-	private Set<MatchInfo> buildFileSetMatches() throws MojoExecutionException {
-		HashSet<MatchInfo> fileSetMatches = new HashSet<>();
-		for (TranslationFileSet fileSet : translationFileSets) {
-			if (isBlank(fileSet.getExportPattern())) {
-				getLog().warn(
-					"Can't deploy translation file set \"" + fileSet.getTitle() +
-					"\" because \"exportPattern\" is missing"
-				);
-				continue;
-			}
-			StringBuilder sb = new StringBuilder();
-			String pushFolder = FileUtil.getPushFolder(fileSet, true);
-			if (isNotBlank(pushFolder)) {
-				sb.append(Pattern.quote(pushFolder));
-			}
-			String remaining = fileSet.getExportPattern();
-			List<PathPlaceholder> matchPlaceHolders = new ArrayList<>();
-			while (remaining.length() > 0) {
-				Matcher matcher = PLACEHOLDER_PATTERN.matcher(remaining);
-				if (matcher.find()) {
-					if (matcher.start() > 0) {
-						sb.append(Pattern.quote(remaining.substring(0, matcher.start())));
-					}
-					PathPlaceholder placeholder = PathPlaceholder.typeOf(matcher.group());
-					if (placeholder == null) {
-						throw new MojoExecutionException("Unknown placeholder \"" + matcher.group() + "\"");
-					}
-					sb.append(placeholder.getPattern());
-					matchPlaceHolders.add(placeholder);
-					remaining = remaining.substring(matcher.end());
-				} else {
-					sb.append(Pattern.quote(remaining));
-					remaining = "";
-				}
-			}
-			fileSetMatches.add(new MatchInfo(fileSet, Pattern.compile(sb.toString()), matchPlaceHolders));
-		}
-		return fileSetMatches;
-	}
-
 	@Nullable
-	private static ISO639 getLanguageFromCrowdinCode(String crowdinCode) {
+	private ISO639 getLanguageFromCrowdinCode(String crowdinCode) {
 		if (isBlank(crowdinCode)) {
 			return null;
 		}
-		int hyphen = crowdinCode.indexOf('-');
-		if (hyphen > 0) {
-			crowdinCode = crowdinCode.substring(0, hyphen);
+		ISO639 result = languages.get(crowdinCode);
+		if (result == null) {
+			int hyphen = crowdinCode.indexOf('-');
+			result = ISO639.getCode(hyphen > 0 ? crowdinCode.substring(0, hyphen) : crowdinCode);
+			if (result != null) {
+				languages.put(crowdinCode, result);
+			}
 		}
-		return ISO639.getCode(crowdinCode);
+		return result;
 	}
 
 	@Nonnull
 	private static String convertPlaceholder(
 		@Nonnull String placeholderContent,
-		@Nullable List<Conversion> conversions
+		@Nonnull ConversionTable conversions
 	) {
 		if (placeholderContent == null) {
 			throw new IllegalArgumentException("placeholder cannot be null");
 		}
+		return conversions.convert(placeholderContent);
+	}
 
-		if (conversions == null || conversions.isEmpty()) {
-			return placeholderContent;
+	/**
+	 * An abstract class representing the source of a translation file, either
+	 * a file in the download folder or an entry in a translations archive.
+	 *
+	 * @author Nadahar
+	 */
+	public abstract static class TranslationSource {
+
+		/**
+		 * Opens a new {@link InputStream} for reading the content.
+		 *
+		 * @return The new {@link InputStream}.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		@Nonnull
+		public abstract InputStream newInputStream() throws IOException;
+
+		/**
+		 * Opens a new {@link BufferedReader} for reading the content as UTF-8.
+		 * Malformed input is reported as an error.
+		 *
+		 * @return The new {@link BufferedReader}.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		@Nonnull
+		public BufferedReader newReader() throws IOException {
+			return new BufferedReader(new InputStreamReader(newInputStream(), StandardCharsets.UTF_8.newDecoder()));
+		}
+
+		/**
+		 * @return The source file if this is a file on the default file
+		 *         system, {@code null} otherwise.
+		 */
+		@Nullable
+		public Path getFile() {
+			return null;
 		}
 
-		for (Conversion conversion : conversions) {
-			if (placeholderContent.equals(conversion.getFrom())) {
-				return conversion.getTo();
+		/**
+		 * Reads the entire content.
+		 *
+		 * @return The content.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		@Nonnull
+		public byte[] getContent() throws IOException {
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			try (InputStream is = newInputStream()) {
+				byte[] buffer = new byte[FileUtil.BUFFER_SIZE];
+				int read;
+				while ((read = is.read(buffer)) != -1) {
+					result.write(buffer, 0, read);
+				}
+			}
+			return result.toByteArray();
+		}
+
+		/**
+		 * Calculates the digest of the content.
+		 *
+		 * @param algorithm the {@link java.security.MessageDigest} algorithm
+		 *            to use.
+		 * @return The lower-case hexadecimal representation of the digest.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		@Nonnull
+		public String getDigest(@Nonnull String algorithm) throws IOException {
+			try (InputStream is = newInputStream()) {
+				return FileUtil.getDigest(is, algorithm);
 			}
 		}
-		return placeholderContent;
 	}
 
-	private static void copyFile(
-		@Nonnull Path sourceFile,
-		@Nonnull Path destinationFile,
-		boolean overwrite
-	) throws IOException {
-		if (overwrite) {
-			Files.copy(sourceFile, destinationFile, StandardCopyOption.REPLACE_EXISTING);
-		} else {
-			Files.copy(sourceFile, destinationFile);
+	/**
+	 * A {@link TranslationSource} representing a file.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class FileSource extends TranslationSource {
+
+		@Nonnull
+		private final Path file;
+
+		/**
+		 * Creates a new instance for the specified file.
+		 *
+		 * @param file the source file.
+		 */
+		public FileSource(@Nonnull Path file) {
+			this.file = file;
+		}
+
+		@Override
+		public InputStream newInputStream() throws IOException {
+			return Files.newInputStream(file);
+		}
+
+		@Override
+		public Path getFile() {
+			return file;
+		}
+
+		@Override
+		public byte[] getContent() throws IOException {
+			return Files.readAllBytes(file);
+		}
+
+		@Override
+		public String getDigest(@Nonnull String algorithm) throws IOException {
+			return FileUtil.getDigest(file, algorithm);
+		}
+
+		@Override
+		public String toString() {
+			return file.toString();
 		}
 	}
 
 	/**
-	 * A class holding the result from parsing a file.
+	 * A {@link TranslationSource} representing an entry in a {@link ZipFile}.
 	 *
 	 * @author Nadahar
 	 */
 	@Immutable
-	public static class ParseResult {
+	public static class ZipEntrySource extends TranslationSource {
+
+		@Nonnull
+		private final ZipFile zipFile;
+
+		@Nonnull
+		private final ZipEntry entry;
+
+		/**
+		 * Creates a new instance for the specified {@link ZipEntry}.
+		 *
+		 * @param zipFile the {@link ZipFile} containing {@code entry}.
+		 * @param entry the {@link ZipEntry}.
+		 */
+		public ZipEntrySource(@Nonnull ZipFile zipFile, @Nonnull ZipEntry entry) {
+			this.zipFile = zipFile;
+			this.entry = entry;
+		}
+
+		@Override
+		public InputStream newInputStream() throws IOException {
+			return zipFile.getInputStream(entry);
+		}
+
+		@Override
+		public String toString() {
+			return Paths.get(zipFile.getName()).getFileName() + "!/" + entry.getName();
+		}
+	}
+
+	/**
+	 * A class holding a translation file and where to deploy it.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class Deployment {
+
+		@Nonnull
+		private final String relativePath;
+
+		@Nonnull
+		private final TranslationSource source;
 
 		@Nonnull
 		private final Path targetFile;
 
 		@Nonnull
-		private final MatchInfo matchInfo;
+		private final TranslationFileSet fileSet;
 
 		/**
 		 * Creates a new instance with the specified values.
 		 *
-		 * @param targetFile the target {@link Path}.
-		 * @param matchInfo the {@link MatchInfo}.
+		 * @param relativePath the path of the source relative to the download
+		 *            folder or archive root, using {@code /} as separator.
+		 * @param source the {@link TranslationSource} to read from.
+		 * @param targetFile the resolved file to deploy to.
+		 * @param fileSet the matching {@link TranslationFileSet}.
 		 */
-		public ParseResult(@Nonnull Path targetFile, @Nonnull MatchInfo matchInfo) {
+		public Deployment(
+			@Nonnull String relativePath,
+			@Nonnull TranslationSource source,
+			@Nonnull Path targetFile,
+			@Nonnull TranslationFileSet fileSet
+		) {
+			this.relativePath = relativePath;
+			this.source = source;
 			this.targetFile = targetFile;
-			this.matchInfo = matchInfo;
+			this.fileSet = fileSet;
 		}
 
 		/**
-		 * @return The resolved target {@link Path}.
+		 * @return The path of the source relative to the download folder or
+		 *         archive root, using {@code /} as separator.
+		 */
+		@Nonnull
+		public String getRelativePath() {
+			return relativePath;
+		}
+
+		/**
+		 * @return The {@link TranslationSource} to read from.
+		 */
+		@Nonnull
+		public TranslationSource getSource() {
+			return source;
+		}
+
+		/**
+		 * @return The resolved file to deploy to.
 		 */
 		@Nonnull
 		public Path getTargetFile() {
@@ -766,87 +1577,380 @@ public class DeployCrowdinMojo extends AbstractCrowdinMojo {
 		}
 
 		/**
-		 * @return The matching {@link MatchInfo}.
+		 * @return The matching {@link TranslationFileSet}.
 		 */
 		@Nonnull
-		public MatchInfo getMatchInfo() {
-			return matchInfo;
+		public TranslationFileSet getFileSet() {
+			return fileSet;
 		}
 
 		@Override
 		public String toString() {
-			StringBuilder builder = new StringBuilder();
-			builder.append("ParseResult [targetFile=").append(targetFile)
-				.append(", matchInfo=").append(matchInfo).append("]");
-			return builder.toString();
+			return "Deployment [source=" + source + ", targetFile=" + targetFile + ", fileSet=" + fileSet + "]";
 		}
 	}
 
 	/**
-	 * A class holding information for matching a file path to a
-	 * {@link TranslationFileSet}.
+	 * An abstract class that receives the translations status one language at
+	 * a time and renders a status file from it.
 	 *
 	 * @author Nadahar
 	 */
-	@Immutable
-	public static class MatchInfo {
+	protected abstract static class StatusSink {
+
+		/**
+		 * Called if the document is an array, before any elements.
+		 *
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public abstract void beginArray() throws IOException;
 
+		/**
+		 * Called for each element of the document array.
+		 *
+		 * @param element the {@link JsonElement}.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public abstract void element(@Nonnull JsonElement element) throws IOException;
+
+		/**
+		 * Called if the document is an array, after all elements.
+		 *
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public abstract void endArray() throws IOException;
+
+		/**
+		 * Called instead of {@link #beginArray()} and {@link #element} if the
+		 * document isn't an array.
+		 *
+		 * @param document the document.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public abstract void document(@Nonnull JsonElement document) throws IOException;
+
+		/**
+		 * Renders the status file.
+		 *
+		 * @return The content of the status file.
+		 * @throws IOException If an error occurs during the operation.
+		 */
 		@Nonnull
-		private final TranslationFileSet fileSet;
+		public abstract byte[] finish() throws IOException;
+	}
+
+	/**
+	 * A {@link StatusSink} that renders a {@link FileType#properties} status
+	 * file.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class PropertiesStatusSink extends StatusSink {
 
 		@Nonnull
-		private final Pattern pattern;
+		private final StatusFile fileSet;
 
 		@Nonnull
-		private final List<PathPlaceholder> placeHolders;
+		private final Object source;
+
+		@Nullable
+		private final String commentHeader;
+
+		@Nullable
+		private final String lineSeparator;
+
+		@Nonnull
+		private final OrderedProperties statusProperties;
 
 		/**
-		 * Create a new instance with the specified values.
+		 * Creates a new instance using the specified parameters.
 		 *
-		 * @param fileSet the {@link TranslationFileSet}.
-		 * @param pattern the matching {@link Pattern}.
-		 * @param placeHolders the {@link List} of {@link PathPlaceholder}s.i
+		 * @param fileSet the {@link StatusFile}.
+		 * @param source the source to use in error messages.
+		 * @param commentHeader the comment or {@code null}.
+		 * @param lineSeparator the line separator or {@code null} to use the
+		 *            system line separator.
 		 */
-		public MatchInfo(
-			@Nonnull TranslationFileSet fileSet,
-			@Nonnull Pattern pattern,
-			@Nonnull List<PathPlaceholder> placeHolders
+		public PropertiesStatusSink(
+			@Nonnull StatusFile fileSet,
+			@Nonnull Object source,
+			@Nullable String commentHeader,
+			@Nullable String lineSeparator
 		) {
 			this.fileSet = fileSet;
-			this.pattern = pattern;
-			this.placeHolders = placeHolders;
+			this.source = source;
+			this.commentHeader = commentHeader;
+			this.lineSeparator = lineSeparator;
+			this.statusProperties = Boolean.TRUE.equals(fileSet.getSortLines()) ?
+				new GroupSortedProperties() :
+				new FIFOProperties();
+		}
+
+		@Override
+		public void beginArray() {
+		}
+
+		@Override
+		public void element(@Nonnull JsonElement child) throws IOException {
+			JsonElement element;
+			JsonObject childObject, object;
+			String languageTag;
+			try {
+				childObject = child.getAsJsonObject();
+				element = childObject.get("languageId");
+				if (element != null) {
+					languageTag = convertPlaceholder(element.getAsString(), fileSet.getConversionTable());
+					element = childObject.get("language");
+					if (element != null) {
+						statusProperties.put(languageTag + ".name", element.getAsJsonObject().get("name").getAsString());
+					}
+					element = childObject.get("phrases");
+					if (element != null) {
+						object = element.getAsJsonObject();
+						statusProperties.put(languageTag + ".phrases", object.get("total").getAsString());
+						statusProperties.put(languageTag + ".phrases.translated", object.get("translated").getAsString());
+						statusProperties.put(languageTag + ".phrases.approved", object.get("approved").getAsString());
+					}
+					element = childObject.get("words");
+					if (element != null) {
+						object = element.getAsJsonObject();
+						statusProperties.put(languageTag + ".words", object.get("total").getAsString());
+						statusProperties.put(languageTag + ".words.translated", object.get("translated").getAsString());
+						statusProperties.put(languageTag + ".words.approved", object.get("approved").getAsString());
+					}
+					element = childObject.get("translationProgress");
+					if (element != null) {
+						statusProperties.put(languageTag + ".progress.translated", element.getAsString());
+					}
+					element = childObject.get("approvalProgress");
+					if (element != null) {
+						statusProperties.put(languageTag + ".progress.approved", element.getAsString());
+					}
+				}
+			} catch (IllegalStateException | UnsupportedOperationException e) {
+				throw new IOException("Unable to parse status file \"" + source + "\": " + e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public void endArray() {
+		}
+
+		@Override
+		public void document(@Nonnull JsonElement document) throws IOException {
+			throw new IOException("Unable to parse status file \"" + source + "\": Not a JSON Array: " + document);
+		}
+
+		@Override
+		public byte[] finish() throws IOException {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			try (BufferedWriter writer = newWriter(buffer, fileSet.getCharset())) {
+				statusProperties.store(
+					writer,
+					commentHeader,
+					lineSeparator,
+					!Boolean.FALSE.equals(fileSet.getEscapeUnicode())
+				);
+			}
+			return buffer.toByteArray();
+		}
+	}
+
+	/**
+	 * A {@link StatusSink} that renders a {@link FileType#json} status file,
+	 * pretty printed using the configured line separator.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class JsonStatusSink extends StatusSink {
+
+		/** The {@link Gson} instance used to write the elements */
+		protected static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+		@Nonnull
+		private final ConversionTable conversions;
+
+		@Nonnull
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		@Nonnull
+		private final JsonWriter writer;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param conversions the {@link ConversionTable} to apply to the
+		 *            language IDs.
+		 * @param charset the {@link Charset} to use.
+		 * @param lineSeparator the line separator to use.
+		 */
+		public JsonStatusSink(
+			@Nonnull ConversionTable conversions,
+			@Nonnull Charset charset,
+			@Nonnull String lineSeparator
+		) {
+			this.conversions = conversions;
+			Writer target = newWriter(buffer, charset);
+			if (!"\n".equals(lineSeparator)) {
+				target = new LineSeparatorWriter(target, lineSeparator);
+			}
+			writer = new JsonWriter(target);
+			writer.setIndent("  ");
+		}
+
+		@Override
+		public void beginArray() throws IOException {
+			writer.beginArray();
+		}
+
+		@Override
+		public void element(@Nonnull JsonElement element) throws IOException {
+			if (!conversions.isEmpty() && element.isJsonObject()) {
+				JsonObject childObject = element.getAsJsonObject();
+				JsonElement languageId = childObject.get("languageId");
+				if (languageId != null && languageId.isJsonPrimitive() && languageId.getAsJsonPrimitive().isString()) {
+					String currentCode = languageId.getAsString();
+					String convertedCode = convertPlaceholder(currentCode, conversions);
+					if (!convertedCode.equals(currentCode)) {
+						childObject.add("languageId", new JsonPrimitive(convertedCode));
+					}
+				}
+			}
+			write(element);
+		}
+
+		@Override
+		public void endArray() throws IOException {
+			writer.endArray();
+		}
+
+		@Override
+		public void document(@Nonnull JsonElement document) throws IOException {
+			write(document);
+		}
+
+		private void write(@Nonnull JsonElement element) throws IOException {
+			try {
+				GSON.toJson(element, writer);
+			} catch (JsonIOException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public byte[] finish() throws IOException {
+			writer.close();
+			return buffer.toByteArray();
 		}
+	}
+
+	/**
+	 * A {@link FilterWriter} that replaces every {@code \n} with the specified
+	 * line separator.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class LineSeparatorWriter extends FilterWriter {
+
+		@Nonnull
+		private final String lineSeparator;
 
 		/**
-		 * @return The {@link TranslationFileSet}.
+		 * Creates a new instance.
+		 *
+		 * @param out the {@link Writer} to write to.
+		 * @param lineSeparator the line separator to write instead of
+		 *            {@code \n}.
 		 */
+		public LineSeparatorWriter(@Nonnull Writer out, @Nonnull String lineSeparator) {
+			super(out);
+			this.lineSeparator = lineSeparator;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			if (c == '\n') {
+				out.write(lineSeparator);
+			} else {
+				out.write(c);
+			}
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			int start = off;
+			int end = off + len;
+			for (int i = off; i < end; i++) {
+				if (cbuf[i] == '\n') {
+					out.write(cbuf, start, i - start);
+					out.write(lineSeparator);
+					start = i + 1;
+				}
+			}
+			out.write(cbuf, start, end - start);
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			int start = off;
+			int end = off + len;
+			for (int i = off; i < end; i++) {
+				if (str.charAt(i) == '\n') {
+					out.write(str, start, i - start);
+					out.write(lineSeparator);
+					start = i + 1;
+				}
+			}
+			out.write(str, start, end - start);
+		}
+	}
+
+	/**
+	 * A class holding the result from parsing a file.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class ParseResult {
+
 		@Nonnull
-		public TranslationFileSet getFileSet() {
-			return fileSet;
+		private final Path targetFile;
+
+		@Nonnull
+		private final MatchInfo matchInfo;
+
+		/**
+		 * Creates a new instance with the specified values.
+		 *
+		 * @param targetFile the target {@link Path}.
+		 * @param matchInfo the {@link MatchInfo}.
+		 */
+		public ParseResult(@Nonnull Path targetFile, @Nonnull MatchInfo matchInfo) {
+			this.targetFile = targetFile;
+			this.matchInfo = matchInfo;
 		}
 
 		/**
-		 * @return The match {@link Pattern}.
+		 * @return The resolved target {@link Path}.
 		 */
 		@Nonnull
-		public Pattern getPattern() {
-			return pattern;
+		public Path getTargetFile() {
+			return targetFile;
 		}
 
 		/**
-		 * @return The ordered {@link List} of {@link PathPlaceholder}s.
+		 * @return The matching {@link MatchInfo}.
 		 */
 		@Nonnull
-		public List<PathPlaceholder> getPlaceHolders() {
-			return placeHolders;
+		public MatchInfo getMatchInfo() {
+			return matchInfo;
 		}
 
 		@Override
 		public String toString() {
 			StringBuilder builder = new StringBuilder();
-			builder.append("MatchInfo [fileSet=").append(fileSet)
-				.append(", pattern=\"").append(pattern)
-				.append("\", placeHolders=").append(placeHolders).append("]");
+			builder.append("ParseResult [targetFile=").append(targetFile)
+				.append(", matchInfo=").append(matchInfo).append("]");
 			return builder.toString();
 		}
 	}
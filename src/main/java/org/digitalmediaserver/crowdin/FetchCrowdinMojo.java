@@ -19,36 +19,64 @@
 package org.digitalmediaserver.crowdin;
 
 import static org.digitalmediaserver.crowdin.tool.Constants.*;
-import java.io.BufferedWriter;
+import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.http.HttpException;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.digitalmediaserver.crowdin.api.CrowdinAPI;
-import org.digitalmediaserver.crowdin.api.CrowdinAPI.HTTPMethod;
+import org.digitalmediaserver.crowdin.api.MetadataProvider;
 import org.digitalmediaserver.crowdin.api.response.BranchInfo;
 import org.digitalmediaserver.crowdin.api.response.BuildInfo;
 import org.digitalmediaserver.crowdin.api.response.BuildInfo.ProjectBuildStatus;
 import org.digitalmediaserver.crowdin.api.response.DownloadLinkInfo;
-import org.digitalmediaserver.crowdin.configuration.StatusFile;
+import org.digitalmediaserver.crowdin.api.response.FileInfo;
+import org.digitalmediaserver.crowdin.api.response.ProjectInfo;
+import org.digitalmediaserver.crowdin.configuration.BuildVariant;
 import org.digitalmediaserver.crowdin.configuration.TranslationFileSet;
+import org.digitalmediaserver.crowdin.tool.ArchiveCache;
+import org.digitalmediaserver.crowdin.tool.ConcurrencyUtil;
+import org.digitalmediaserver.crowdin.tool.DownloadManifest;
+import org.digitalmediaserver.crowdin.tool.DownloadManifest.FileRecord;
+import org.digitalmediaserver.crowdin.tool.DownloadUtil;
+import org.digitalmediaserver.crowdin.tool.FileSetMatcher;
 import org.digitalmediaserver.crowdin.tool.FileUtil;
+import org.digitalmediaserver.crowdin.tool.ProgressSnapshot;
+import org.digitalmediaserver.crowdin.tool.RemoteStamp;
+import org.digitalmediaserver.crowdin.tool.StringUtil;
+import com.google.gson.JsonParseException;
 
 
 /**
@@ -127,13 +155,184 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 		this.buildTimeout = buildTimeout;
 	}
 
+	/**
+	 * The maximum number of parallel connections to use when downloading the
+	 * translations archive. The archive is only split into segments if the
+	 * server supports ranged requests.
+	 */
+	@Parameter(property = "downloadSegments", defaultValue = "4")
+	protected int downloadSegments;
+
+	/**
+	 * Sets the {@link #downloadSegments} value.
+	 *
+	 * @param downloadSegments the number of download segments to set.
+	 */
+	protected void setDownloadSegments(int downloadSegments) {
+		this.downloadSegments = downloadSegments;
+	}
+
+	/**
+	 * The number of times to resume or retry a failed download of the
+	 * translations archive.
+	 */
+	@Parameter(property = "downloadRetries", defaultValue = "3")
+	protected int downloadRetries;
+
+	/**
+	 * Sets the {@link #downloadRetries} value.
+	 *
+	 * @param downloadRetries the number of download retries to set.
+	 */
+	protected void setDownloadRetries(int downloadRetries) {
+		this.downloadRetries = downloadRetries;
+	}
+
+	/**
+	 * The host level folder used to cache translations archives by build, so
+	 * that the same build isn't downloaded more than once.
+	 */
+	@Parameter(property = "archiveCacheFolder", defaultValue = "${user.home}/.m2/crowdin-cache")
+	protected File archiveCacheFolder;
+
+	/**
+	 * Sets the {@link #archiveCacheFolder} value.
+	 *
+	 * @param archiveCacheFolder the archive cache folder to set.
+	 */
+	protected void setArchiveCacheFolder(@Nullable File archiveCacheFolder) {
+		this.archiveCacheFolder = archiveCacheFolder;
+	}
+
+	/**
+	 * The maximum total size of the archive cache in MiB. The least recently
+	 * used archives are evicted when the size is exceeded. {@code 0} disables
+	 * the archive cache.
+	 */
+	@Parameter(property = "archiveCacheSize", defaultValue = "256")
+	protected int archiveCacheSize;
+
+	/**
+	 * Sets the {@link #archiveCacheSize} value.
+	 *
+	 * @param archiveCacheSize the archive cache size in MiB to set.
+	 */
+	protected void setArchiveCacheSize(int archiveCacheSize) {
+		this.archiveCacheSize = archiveCacheSize;
+	}
+
+	/**
+	 * Whether to compare the translation progress per language with the
+	 * progress recorded by the previous fetch, and only build the languages
+	 * that have changed. If no languages have changed, the build and download
+	 * are skipped entirely.
+	 * <p>
+	 * <b>Note</b>: Changes are detected using the number of translated and
+	 * approved words and phrases, so edits of existing translations that
+	 * don't change any of these numbers won't be detected.
+	 */
+	@Parameter(property = "incrementalBuild", defaultValue = "false")
+	protected boolean incrementalBuild;
+
+	/**
+	 * Sets the {@link #incrementalBuild} value.
+	 *
+	 * @param incrementalBuild the value to set.
+	 */
+	protected void setIncrementalBuild(boolean incrementalBuild) {
+		this.incrementalBuild = incrementalBuild;
+	}
+
+	/**
+	 * Whether to skip the build and download if the project's last activity
+	 * and the source file revisions at Crowdin are unchanged since the
+	 * previous fetch.
+	 */
+	@Parameter(property = "skipIfUpToDate", defaultValue = "false")
+	protected boolean skipIfUpToDate;
+
+	/**
+	 * Sets the {@link #skipIfUpToDate} value.
+	 *
+	 * @param skipIfUpToDate the value to set.
+	 */
+	protected void setSkipIfUpToDate(boolean skipIfUpToDate) {
+		this.skipIfUpToDate = skipIfUpToDate;
+	}
+
+	/**
+	 * The maximum number of builds to run at Crowdin at the same time when
+	 * fetching several {@link AbstractCrowdinMojo#branches} or
+	 * {@link AbstractCrowdinMojo#buildVariants}.
+	 */
+	@Parameter(property = "concurrentBuilds", defaultValue = "4")
+	protected int concurrentBuilds;
+
+	/**
+	 * Sets the {@link #concurrentBuilds} value.
+	 *
+	 * @param concurrentBuilds the maximum number of concurrent builds to set.
+	 */
+	protected void setConcurrentBuilds(int concurrentBuilds) {
+		this.concurrentBuilds = concurrentBuilds;
+	}
+
+	/**
+	 * Whether to ask Crowdin to build the translations for the predicted
+	 * branch at startup, while the branch is being resolved. The prediction
+	 * is the branch of the previous fetch, or the Crowdin "root" if there is
+	 * none. The build is used if the prediction holds, otherwise it's
+	 * canceled and a new build is started. Isn't used together with
+	 * {@link #incrementalBuild} or {@link #skipIfUpToDate}, since these might
+	 * make the build unnecessary or change what to build.
+	 */
+	@Parameter(property = "speculativeBuild", defaultValue = "false")
+	protected boolean speculativeBuild;
+
+	/**
+	 * Sets the {@link #speculativeBuild} value.
+	 *
+	 * @param speculativeBuild the value to set.
+	 */
+	protected void setSpeculativeBuild(boolean speculativeBuild) {
+		this.speculativeBuild = speculativeBuild;
+	}
+
+	/** Whether {@link #fixedBranch} is used instead of the current Git branch */
+	protected boolean branchFixed;
+
+	/** The branch to fetch if {@link #branchFixed} is {@code true} */
+	@Nullable
+	protected BranchInfo fixedBranch;
+
+	/**
+	 * Sets the branch to fetch instead of the branch matching the current Git
+	 * branch.
+	 *
+	 * @param branch the {@link BranchInfo} or {@code null} for the Crowdin
+	 *            "root branch".
+	 */
+	protected void setFixedBranch(@Nullable BranchInfo branch) {
+		branchFixed = true;
+		fixedBranch = branch;
+	}
+
+	/** The {@link BuildVariant} this instance fetches or {@code null} */
+	@Nullable
+	protected BuildVariant variant;
+
+	/**
+	 * Sets the {@link BuildVariant} this instance fetches.
+	 *
+	 * @param variant the {@link BuildVariant} to set.
+	 */
+	protected void setVariant(@Nullable BuildVariant variant) {
+		this.variant = variant;
+	}
+
 	@Override
 	public void execute() throws MojoExecutionException {
-		initializeParameters();
-		TranslationFileSet.initialize(translationFileSets);
-		StatusFile.initialize(statusFiles);
-		createClient();
-		initializeServer();
+		initializeConcurrently(true, true);
 		doExecute();
 	}
 
@@ -143,102 +342,695 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 	 * @throws MojoExecutionException If an error occurs during the operation.
 	 */
 	public void doExecute() throws MojoExecutionException {
+		doExecute(null);
+	}
+
+	/**
+	 * Performs the task of this {@link org.apache.maven.plugin.Mojo}. If a
+	 * {@link DeployCrowdinMojo} is specified, the translation and status files
+	 * are deployed directly from the downloaded archive and memory instead of
+	 * being written to {@link AbstractCrowdinMojo#downloadFolder}.
+	 *
+	 * @param deployer the {@link DeployCrowdinMojo} to deploy directly with or
+	 *            {@code null} to write to
+	 *            {@link AbstractCrowdinMojo#downloadFolder}.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	public void doExecute(@Nullable DeployCrowdinMojo deployer) throws MojoExecutionException {
 		if (translationFileSets == null || translationFileSets.isEmpty()) {
 			throw new MojoExecutionException("No filesets are defined");
 		}
 
+		if (isMultiBranch() && !branchFixed) {
+			doExecuteBranches(deployer);
+			return;
+		}
+		if (isMultiVariant() && variant == null) {
+			doExecuteVariants(deployer);
+			return;
+		}
+
 		Log logger = getLog();
+		if (deployer == null) {
+			recoverDownloadFolder();
+		}
 		String token = server.getPassword();
-		List<BranchInfo> branches = CrowdinAPI.listBranches(client, projectId, token, null, logger);
-		BranchInfo branch = getBranch(false, branches);
-		BuildInfo build = buildTranslations(branch, token);
-		cleanDownloadFolder();
+		boolean incremental = incrementalBuild && deployer == null;
 
-		logger.info("Downloading translations from Crowdin");
-		DownloadLinkInfo downloadLinkInfo = CrowdinAPI.getDownloadLink(
-			client,
-			projectId,
-			build.getId(),
-			token,
-			logger
-		);
+		// The translations status doesn't depend on the build, so it's
+		// retrieved while the build is in progress
+		ExecutorService executor = ConcurrencyUtil.createThreadPool("crowdin-fetch", 3);
+		Future<BuildInfo> speculative = null;
+		try {
+			Future<String> status = requestTranslationStatus(executor, incremental, token, logger);
+			Long predictedBranchId = null;
+			if (speculativeBuild && !incremental && !(skipIfUpToDate && deployer == null)) {
+				if (branchFixed) {
+					predictedBranchId = fixedBranch == null ? null : Long.valueOf(fixedBranch.getId());
+				} else if (!disableBranches) {
+					predictedBranchId = loadLastBranchId(logger);
+				}
+				speculative = requestSpeculativeBuild(executor, predictedBranchId, token, logger);
+			}
+			List<BranchInfo> branchInfos = getMetadata().listBranches(null);
+			BranchInfo branch = branchFixed ? fixedBranch : getBranch(false, branchInfos);
+			Future<RemoteStamp> remoteStamp = deployer == null ? requestRemoteStamp(executor, branch) : null;
+			if (skipIfUpToDate && remoteStamp != null) {
+				RemoteStamp stamp = getRemoteStamp(remoteStamp, logger);
+				if (stamp != null && stamp.isSameState(RemoteStamp.load(
+					downloadFolderPath.resolve(STATE_FOLDER).resolve(REMOTE_STAMP_FILENAME),
+					logger
+				))) {
+					logger.info("Translations are up to date, skipping build");
+					return;
+				}
+			}
 
-		// Crowdin doesn't filter out branches from the root branch archive,
-		// so they have to be filtered here.
-		Set<String> filterBranchNames = null;
-		if (branch == null && !branches.isEmpty()) {
-			filterBranchNames = new HashSet<>(branches.size(), 1f);
-			for (BranchInfo info : branches) {
-				filterBranchNames.add(info.getName());
-			}
-		}
-
-		List<String> pathElements;
-		int count = 0;
-		boolean filter;
-		byte[] buf = new byte[1024];
-		try (
-			CloseableHttpResponse response = CrowdinAPI.sendStreamRequest(
-				client,
-				HTTPMethod.GET,
-				downloadLinkInfo.getUrl(),
-				null,
-				logger
-			);
-			InputStream responseBodyAsStream = response.getEntity().getContent();
-			ZipInputStream zis = new ZipInputStream(responseBodyAsStream);
-		) {
-			ZipEntry entry;
-			while ((entry = zis.getNextEntry()) != null) {
-				if (filterBranchNames != null) {
-					pathElements = FileUtil.splitPath(entry.getName(), true);
-					filter = false;
-					for (int i = 1; i < pathElements.size(); i++) {
-						if (filterBranchNames.contains(pathElements.get(i))) {
-							filter = true;
-							break;
-						}
-					}
-					if (filter) {
-						if (logger.isDebugEnabled()) {
-							logger.debug("Filtering out branch element \"" + entry.getName() + "\"");
-						}
-						continue;
+			ProgressSnapshot snapshot = null;
+			Set<String> changedLanguages = null;
+			if (incremental) {
+				snapshot = createProgressSnapshot(
+					branch,
+					ConcurrencyUtil.getResult(status, "Failed to get translations status"),
+					logger
+				);
+				if (snapshot != null) {
+					changedLanguages = snapshot.findChangedLanguages(ProgressSnapshot.load(
+						downloadFolderPath.resolve(STATE_FOLDER).resolve(PROGRESS_SNAPSHOT_FILENAME),
+						logger
+					));
+					if (changedLanguages != null && changedLanguages.isEmpty()) {
+						logger.info("No translations have changed since the last fetch, skipping build");
+						return;
 					}
 				}
-				if (entry.isDirectory()) {
-					if (logger.isDebugEnabled()) {
-						logger.debug("Creating folder \"" + entry.getName() + "\"");
-					}
+			}
+			BuildInfo build = null;
+			if (speculative != null) {
+				Future<BuildInfo> predicted = speculative;
+				speculative = null;
+				build = adoptSpeculativeBuild(predicted, predictedBranchId, branch, token, logger);
+			}
+			if (build == null) {
+				build = buildTranslations(branch, changedLanguages, token);
+			}
+
+			// Crowdin doesn't filter out branches from the root branch archive,
+			// so they have to be filtered here.
+			Set<String> filterBranchNames = null;
+			if (branch == null && !branchInfos.isEmpty()) {
+				filterBranchNames = new HashSet<>(branchInfos.size(), 1f);
+				for (BranchInfo info : branchInfos) {
+					filterBranchNames.add(info.getName());
+				}
+			}
+
+			Path archive;
+			try {
+				archive = Files.createTempFile("crowdin-", ".zip");
+			} catch (IOException e) {
+				throw new MojoExecutionException("Failed to create temporary file: " + e.getMessage(), e);
+			}
+			if (deployer != null) {
+				int count;
+				try {
+					downloadArchive(build, archive, token, logger);
+					count = deployer.deployArchive(archive, filterBranchNames);
+				} finally {
+					deleteTempFile(archive);
+				}
+				if (count == 0) {
+					logger.info("No translations were deployed!");
+				} else {
+					logger.info("Successfully deployed " + count + " files directly from Crowdin");
+				}
+				if (statusFiles != null && !statusFiles.isEmpty()) {
+					deployer.deployStatus(ConcurrencyUtil.getResult(status, "Failed to get translations status"));
+				}
+				saveLastBranch(downloadFolderPath, branch, logger);
+				return;
+			}
+
+			// Only files that a translation file set will deploy are extracted
+			FileSetMatcher fileSetMatcher = null;
+			if (translationFileSets != null && !translationFileSets.isEmpty()) {
+				fileSetMatcher = FileSetMatcher.compile(translationFileSets, null);
+			}
 
-					Files.createDirectories(downloadFolderPath.resolve(entry.getName()));
+			// Everything is written to the staging folder, which then replaces the
+			// download folder. A failure leaves the download folder untouched.
+			Path stagingFolder = getStagingFolder();
+			boolean swapped = false;
+			try {
+				int count;
+				try {
+					downloadArchive(build, archive, token, logger);
+					count = extractArchive(
+						archive,
+						stagingFolder,
+						filterBranchNames,
+						fileSetMatcher,
+						changedLanguages,
+						logger
+					);
+				} finally {
+					deleteTempFile(archive);
+				}
+				if (count == 0) {
+					logger.info("No translations are available!");
 				} else {
-					if (logger.isDebugEnabled()) {
-						logger.debug("Writing \"" + entry.getName() + "\"");
+					logger.info("Successfully downloaded " + count + " files from Crowdin");
+				}
+
+				downloadStatusFile(stagingFolder, status);
+				if (snapshot != null) {
+					Path snapshotFile = stagingFolder.resolve(STATE_FOLDER).resolve(PROGRESS_SNAPSHOT_FILENAME);
+					try {
+						snapshot.save(snapshotFile);
+					} catch (IOException e) {
+						logger.warn("Failed to write progress snapshot \"" + snapshotFile + "\": " + e.getMessage());
+					}
+				}
+				RemoteStamp stamp = remoteStamp == null ? null : getRemoteStamp(remoteStamp, logger);
+				if (stamp != null) {
+					stamp.setBuild(build.getId(), build.getFinishedAt());
+					Path stampFile = stagingFolder.resolve(STATE_FOLDER).resolve(REMOTE_STAMP_FILENAME);
+					try {
+						stamp.save(stampFile);
+					} catch (IOException e) {
+						logger.warn("Failed to write remote stamp \"" + stampFile + "\": " + e.getMessage());
 					}
+				}
+				saveLastBranch(stagingFolder, branch, logger);
+				swapDownloadFolder(stagingFolder);
+				swapped = true;
+			} finally {
+				if (!swapped) {
+					deleteInBackground(Collections.singletonList(stagingFolder));
+				}
+			}
+		} finally {
+			if (speculative != null) {
+				// The fetch failed or was skipped before the build was adopted
+				discardSpeculativeBuild(speculative, token, logger);
+			}
+			executor.shutdownNow();
+		}
+	}
 
-					Path path = downloadFolderPath.resolve(entry.getName());
-					try (OutputStream os = Files.newOutputStream(path)) {
-						while (zis.available() > 0) {
-							int read = zis.read(buf);
-							if (read != -1) {
-								os.write(buf, 0, read);
-							}
-						}
+	/**
+	 * Fetches the translations for each of the configured
+	 * {@link AbstractCrowdinMojo#branches} concurrently, each to its own
+	 * subfolder of {@link AbstractCrowdinMojo#downloadFolder}.
+	 *
+	 * @param deployer the {@link DeployCrowdinMojo} to deploy directly with or
+	 *            {@code null} to write to
+	 *            {@link AbstractCrowdinMojo#downloadFolder}.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void doExecuteBranches(@Nullable DeployCrowdinMojo deployer) throws MojoExecutionException {
+		Map<String, BranchInfo> matched = resolveBranches(
+			getMetadata().listBranches(null)
+		);
+		if (matched.isEmpty()) {
+			throw new MojoExecutionException("No Crowdin branches match " + branches);
+		}
+		getLog().info("Fetching translations for branches " + matched.keySet());
+
+		Map<String, FetchCrowdinMojo> fetches = new LinkedHashMap<>();
+		for (Entry<String, BranchInfo> entry : matched.entrySet()) {
+			fetches.put(entry.getKey(), createBranchFetch(entry.getKey(), entry.getValue()));
+		}
+		executeSubfolders(fetches, deployer, "Failed to fetch branch translations");
+	}
+
+	/**
+	 * Fetches the translations for each of the configured
+	 * {@link AbstractCrowdinMojo#buildVariants} concurrently, each to its own
+	 * subfolder of {@link AbstractCrowdinMojo#downloadFolder}.
+	 *
+	 * @param deployer the {@link DeployCrowdinMojo} to deploy directly with or
+	 *            {@code null} to write to
+	 *            {@link AbstractCrowdinMojo#downloadFolder}.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void doExecuteVariants(@Nullable DeployCrowdinMojo deployer) throws MojoExecutionException {
+		Map<String, FetchCrowdinMojo> fetches = new LinkedHashMap<>();
+		for (BuildVariant variant : buildVariants) {
+			fetches.put(variant.getName(), createVariantFetch(variant));
+		}
+		getLog().info("Fetching translations for build variants " + fetches.keySet());
+		executeSubfolders(fetches, deployer, "Failed to fetch build variant translations");
+	}
+
+	/**
+	 * Executes the specified {@link FetchCrowdinMojo}s concurrently, each
+	 * fetching to its own subfolder of
+	 * {@link AbstractCrowdinMojo#downloadFolder}. Subfolders that don't
+	 * belong to any of them are deleted. All of them share the same HTTP
+	 * client and archive cache, and no more than {@link #concurrentBuilds}
+	 * are executed at the same time.
+	 *
+	 * @param fetches the {@link FetchCrowdinMojo}s by subfolder name.
+	 * @param deployer the {@link DeployCrowdinMojo} to deploy directly with or
+	 *            {@code null} to write to
+	 *            {@link AbstractCrowdinMojo#downloadFolder}.
+	 * @param errorMessage the message to use if one of them fails.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void executeSubfolders(
+		@Nonnull Map<String, FetchCrowdinMojo> fetches,
+		@Nullable DeployCrowdinMojo deployer,
+		@Nonnull String errorMessage
+	) throws MojoExecutionException {
+		if (deployer == null) {
+			try {
+				Files.createDirectories(downloadFolderPath);
+				for (String name : findSubfolders()) {
+					if (!fetches.containsKey(name)) {
+						getLog().info("Deleting obsolete translations \"" + name + "\"");
+						FileUtil.deleteRecursively(downloadFolderPath.resolve(name));
 					}
-					count++;
+				}
+			} catch (IOException e) {
+				throw new MojoExecutionException(
+					"Failed to prepare download folder \"" + downloadFolderPath + "\": " + e.getMessage(),
+					e
+				);
+			}
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>(fetches.size());
+		for (Entry<String, FetchCrowdinMojo> entry : fetches.entrySet()) {
+			final FetchCrowdinMojo fetch = entry.getValue();
+			final DeployCrowdinMojo subDeployer = deployer == null ? null : deployer.createSubfolderDeploy(entry.getKey());
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() throws MojoExecutionException {
+					fetch.doExecute(subDeployer);
+					return null;
+				}
+			});
+		}
+		ExecutorService executor = ConcurrencyUtil.createThreadPool(
+			"crowdin-subfolder",
+			Math.min(tasks.size(), concurrentBuilds)
+		);
+		try {
+			ConcurrencyUtil.invokeAll(executor, tasks, errorMessage);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Resolves the configured {@link AbstractCrowdinMojo#branches} against the
+	 * specified Crowdin branches.
+	 *
+	 * @param branchInfos the {@link BranchInfo}s for the Crowdin branches.
+	 * @return The sorted {@link Map} of branch names and {@link BranchInfo}s,
+	 *         where the Crowdin "root branch" is represented by
+	 *         {@link AbstractCrowdinMojo#rootBranch} and a {@code null} value.
+	 */
+	@Nonnull
+	protected Map<String, BranchInfo> resolveBranches(@Nonnull List<BranchInfo> branchInfos) {
+		Map<String, BranchInfo> result = new TreeMap<>();
+		if (branches == null) {
+			return result;
+		}
+		for (String branchName : branches) {
+			if (isBlank(branchName)) {
+				continue;
+			}
+			branchName = branchName.trim();
+			if (branchName.equals(rootBranch)) {
+				result.put(rootBranch, null);
+				continue;
+			}
+			Pattern pattern = DeployCrowdinMojo.createFilterPattern(branchName);
+			for (BranchInfo branchInfo : branchInfos) {
+				if (pattern != null && pattern.matcher(branchInfo.getName()).matches()) {
+					result.put(branchInfo.getName(), branchInfo);
 				}
 			}
-		} catch (IOException | HttpException e) {
-			throw new MojoExecutionException("Failed to download translation files: " + e.getMessage(), e);
 		}
-		if (count == 0) {
-			logger.info("No translations are available!");
-		} else {
-			logger.info("Successfully downloaded " + count + " files from Crowdin");
+		return result;
+	}
+
+	/**
+	 * Creates a new {@link FetchCrowdinMojo} for fetching the specified branch
+	 * to its subfolder of {@link AbstractCrowdinMojo#downloadFolder}, using
+	 * the same configuration and HTTP client as this instance.
+	 *
+	 * @param name the branch name, which is also the subfolder name.
+	 * @param branch the {@link BranchInfo} or {@code null} for the Crowdin
+	 *            "root branch".
+	 * @return The new {@link FetchCrowdinMojo}.
+	 */
+	@Nonnull
+	protected FetchCrowdinMojo createBranchFetch(@Nonnull String name, @Nullable BranchInfo branch) {
+		FetchCrowdinMojo result = createSubfolderFetch(name);
+		result.setFixedBranch(branch);
+		return result;
+	}
+
+	/**
+	 * Creates a new {@link FetchCrowdinMojo} for fetching the specified
+	 * {@link BuildVariant} to its subfolder of
+	 * {@link AbstractCrowdinMojo#downloadFolder}, using the same
+	 * configuration and HTTP client as this instance except for the options
+	 * defined by the {@link BuildVariant}.
+	 *
+	 * @param variant the {@link BuildVariant}.
+	 * @return The new {@link FetchCrowdinMojo}.
+	 * @throws MojoExecutionException If the resulting options are invalid.
+	 */
+	@Nonnull
+	protected FetchCrowdinMojo createVariantFetch(@Nonnull BuildVariant variant) throws MojoExecutionException {
+		FetchCrowdinMojo result = createSubfolderFetch(variant.getName());
+		if (variant.getSkipUntranslatedStrings() != null) {
+			result.setSkipUntranslatedStrings(variant.getSkipUntranslatedStrings().booleanValue());
+		}
+		if (variant.getSkipUntranslatedFiles() != null) {
+			result.setSkipUntranslatedFiles(variant.getSkipUntranslatedFiles().booleanValue());
+		}
+		if (variant.getExportApprovedOnly() != null) {
+			result.setExportApprovedOnly(variant.getExportApprovedOnly().booleanValue());
+		}
+		if (result.skipUntranslatedFiles && result.skipUntranslatedStrings) {
+			throw new MojoExecutionException(
+				"Both 'skipUntranslatedFiles' and 'skipUntranslatedStrings' cannot be 'true' for build variant \"" +
+				variant.getName() + "\""
+			);
+		}
+		result.setVariant(variant);
+		return result;
+	}
+
+	/**
+	 * Creates a new {@link FetchCrowdinMojo} for fetching to the specified
+	 * subfolder of {@link AbstractCrowdinMojo#downloadFolder}, using the same
+	 * configuration and HTTP client as this instance.
+	 *
+	 * @param name the subfolder name.
+	 * @return The new {@link FetchCrowdinMojo}.
+	 */
+	@Nonnull
+	protected FetchCrowdinMojo createSubfolderFetch(@Nonnull String name) {
+		FetchCrowdinMojo result = new FetchCrowdinMojo();
+		result.setCrowdinServerId(crowdinServerId);
+		result.setDownloadFolder(downloadFolderPath.resolve(name));
+		result.setHTTPTimeout(httpTimeout);
+		result.setBuildTimeout(buildTimeout);
+		result.setProject(project);
+		result.setProjectId(projectId);
+		result.setDisableBranches(disableBranches);
+		result.setGitBaseFolder(gitBaseFolder);
+		result.setRootBranch(rootBranch);
+		result.setServer(server);
+		result.setClient(client);
+		result.setMetadata(getMetadata());
+		result.setGitBranch(gitBranch);
+		result.setSkipUntranslatedFiles(skipUntranslatedFiles);
+		result.setSkipUntranslatedStrings(skipUntranslatedStrings);
+		result.setExportApprovedOnly(exportApprovedOnly);
+		result.setDownloadSegments(downloadSegments);
+		result.setDownloadRetries(downloadRetries);
+		result.setArchiveCacheFolder(archiveCacheFolder);
+		result.setArchiveCacheSize(archiveCacheSize);
+		result.setIncrementalBuild(incrementalBuild);
+		result.setSkipIfUpToDate(skipIfUpToDate);
+		result.setSpeculativeBuild(speculativeBuild);
+		result.setTranslationFileSets(translationFileSets);
+		result.setStatusFiles(statusFiles);
+		result.setLog(getLog());
+		return result;
+	}
+
+	/**
+	 * Submits a request for the translations status to the specified
+	 * {@link ExecutorService}, if any status files are configured or the
+	 * request is forced.
+	 *
+	 * @param executor the {@link ExecutorService} to use.
+	 * @param force {@code true} to request the translations status even if no
+	 *            status files are configured.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 * @return The {@link Future} translations status or {@code null} if no
+	 *         status files are configured and {@code force} is {@code false}.
+	 */
+	@Nullable
+	protected Future<String> requestTranslationStatus(
+		@Nonnull ExecutorService executor,
+		boolean force,
+		@Nonnull final String token,
+		@Nonnull final Log logger
+	) {
+		if (!force && (statusFiles == null || statusFiles.isEmpty())) {
+			return null;
 		}
+		return executor.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws MojoExecutionException {
+				return CrowdinAPI.getTranslationStatus(client, projectId, token, logger);
+			}
+		});
+	}
+
+	/**
+	 * Returns a {@link String} representation of the options that affect the
+	 * content of the translations archive, and of the
+	 * {@link AbstractCrowdinMojo#translationFileSets} configuration that
+	 * decides which files are extracted from it.
+	 *
+	 * @param branch the {@link BranchInfo} if building for a branch.
+	 * @return The build options.
+	 */
+	@Nonnull
+	protected String getBuildOptions(@Nullable BranchInfo branch) {
+		return
+			"projectId=" + projectId +
+			", branch=" + (branch == null ? "" : branch.getName()) +
+			", skipUntranslatedStrings=" + skipUntranslatedStrings +
+			", skipUntranslatedFiles=" + skipUntranslatedFiles +
+			", exportApprovedOnly=" + exportApprovedOnly +
+			", fileSets=" + getFileSetsDigest();
+	}
 
-		downloadStatusFile();
+	/**
+	 * Calculates a digest of the {@link AbstractCrowdinMojo#translationFileSets}
+	 * configuration that the {@link FileSetMatcher} used for extraction
+	 * depends on: The push folder and export pattern of each file set, in the
+	 * configured order. Includes and excludes only apply when deploying, and
+	 * are thus left out.
+	 *
+	 * @return The lower-case hexadecimal digest or an empty {@link String} if
+	 *         no translation file sets are configured.
+	 */
+	@Nonnull
+	protected String getFileSetsDigest() {
+		if (translationFileSets == null || translationFileSets.isEmpty()) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (TranslationFileSet fileSet : translationFileSets) {
+			if (isBlank(fileSet.getExportPattern())) {
+				// Ignored by FileSetMatcher
+				continue;
+			}
+			sb.append("pushFolder=").append(FileUtil.getPushFolder(fileSet, true))
+				.append("\u0000exportPattern=").append(fileSet.getExportPattern())
+				.append('\n');
+		}
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(DownloadManifest.DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is supported by every Java platform
+			throw new AssertionError(e);
+		}
+		return StringUtil.toHexString(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Submits a request for a {@link RemoteStamp} of the current state at
+	 * Crowdin to the specified {@link ExecutorService}.
+	 *
+	 * @param executor the {@link ExecutorService} to use.
+	 * @param branch the {@link BranchInfo} if building for a branch.
+	 * @return The {@link Future} {@link RemoteStamp}.
+	 */
+	@Nonnull
+	protected Future<RemoteStamp> requestRemoteStamp(
+		@Nonnull ExecutorService executor,
+		@Nullable final BranchInfo branch
+	) {
+		return executor.submit(new Callable<RemoteStamp>() {
+
+			@Override
+			public RemoteStamp call() throws MojoExecutionException {
+				return createRemoteStamp(branch);
+			}
+		});
+	}
+
+	/**
+	 * Waits for the specified {@link Future} {@link RemoteStamp}, logging a
+	 * warning if it failed.
+	 *
+	 * @param remoteStamp the {@link Future} {@link RemoteStamp}.
+	 * @param logger the {@link Log} to log to.
+	 * @return The {@link RemoteStamp} or {@code null} if it failed.
+	 */
+	@Nullable
+	protected RemoteStamp getRemoteStamp(@Nonnull Future<RemoteStamp> remoteStamp, @Nonnull Log logger) {
+		try {
+			return ConcurrencyUtil.getResult(remoteStamp, "Failed to get project state");
+		} catch (MojoExecutionException e) {
+			logger.warn(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a {@link RemoteStamp} of the current state at Crowdin, using the
+	 * project information and the list of source files from the
+	 * {@link MetadataProvider}.
+	 *
+	 * @param branch the {@link BranchInfo} if building for a branch.
+	 * @return The new {@link RemoteStamp}.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	@Nonnull
+	protected RemoteStamp createRemoteStamp(@Nullable BranchInfo branch) throws MojoExecutionException {
+		ProjectInfo projectInfo = getMetadata().getProjectInfo();
+		List<FileInfo> files = getMetadata().listFiles(branch == null ? null : Long.valueOf(branch.getId()), branch != null);
+		String filesDigest;
+		try {
+			filesDigest = RemoteStamp.calculateFilesDigest(files);
+		} catch (IOException e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+		Date lastActivity = projectInfo.getLastActivity() != null ? projectInfo.getLastActivity() : projectInfo.getUpdatedAt();
+		return new RemoteStamp(
+			getBuildOptions(branch),
+			lastActivity == null ? 0L : lastActivity.getTime(),
+			files.size(),
+			filesDigest
+		);
+	}
+
+	/**
+	 * Creates a {@link ProgressSnapshot} from the specified translations
+	 * status, recording the build options that affect the content of the
+	 * translations archive.
+	 *
+	 * @param branch the {@link BranchInfo} if building for a branch.
+	 * @param status the translations status JSON.
+	 * @param logger the {@link Log} to log to.
+	 * @return The new {@link ProgressSnapshot} or {@code null} if the
+	 *         translations status couldn't be parsed.
+	 */
+	@Nullable
+	protected ProgressSnapshot createProgressSnapshot(
+		@Nullable BranchInfo branch,
+		@Nonnull String status,
+		@Nonnull Log logger
+	) {
+		try {
+			return ProgressSnapshot.create(getBuildOptions(branch), status);
+		} catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+			logger.warn("Unable to parse translations progress, building all languages: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Downloads the translations archive for the specified build to the
+	 * specified file. If the archive cache is enabled and holds the archive,
+	 * it's retrieved from the cache instead. Downloaded archives are added to
+	 * the cache.
+	 *
+	 * @param build the {@link BuildInfo} for the finished build.
+	 * @param archive the file to write to.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void downloadArchive(
+		@Nonnull BuildInfo build,
+		@Nonnull Path archive,
+		@Nonnull String token,
+		@Nonnull Log logger
+	) throws MojoExecutionException {
+		if (archiveCacheFolder == null || archiveCacheSize <= 0) {
+			downloadArchiveFromCrowdin(build, archive, token, logger);
+			return;
+		}
+
+		// The entry is locked while downloading, so that concurrent builds
+		// wait for the archive instead of downloading it again.
+		ArchiveCache cache = new ArchiveCache(archiveCacheFolder.toPath(), archiveCacheSize * 1024L * 1024L, logger);
+		ArchiveCache.Entry entry;
+		try {
+			entry = cache.open(build.getProjectId(), build.getId());
+		} catch (IOException e) {
+			logger.warn("Unable to use archive cache \"" + cache.getFolder() + "\": " + e.getMessage());
+			downloadArchiveFromCrowdin(build, archive, token, logger);
+			return;
+		}
+		try {
+			try {
+				if (entry.retrieve(archive)) {
+					logger.info("Using cached translations archive for build " + build.getId());
+					return;
+				}
+			} catch (IOException e) {
+				logger.warn("Failed to retrieve translations archive from cache: " + e.getMessage());
+			}
+			downloadArchiveFromCrowdin(build, archive, token, logger);
+			try {
+				entry.store(archive);
+			} catch (IOException e) {
+				logger.warn("Failed to store translations archive in cache: " + e.getMessage());
+			}
+		} finally {
+			try {
+				entry.close();
+			} catch (IOException e) {
+				logger.warn("Failed to release archive cache lock: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Downloads the translations archive for the specified build from Crowdin
+	 * to the specified file.
+	 *
+	 * @param build the {@link BuildInfo} for the finished build.
+	 * @param archive the file to write to.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void downloadArchiveFromCrowdin(
+		@Nonnull BuildInfo build,
+		@Nonnull Path archive,
+		@Nonnull String token,
+		@Nonnull Log logger
+	) throws MojoExecutionException {
+		logger.info("Downloading translations from Crowdin");
+		DownloadLinkInfo downloadLinkInfo = CrowdinAPI.getDownloadLink(
+			client,
+			projectId,
+			build.getId(),
+			token,
+			logger
+		);
+		DownloadUtil.download(client, downloadLinkInfo.getUrl(), archive, downloadSegments, downloadRetries, logger);
 	}
 
 	/**
@@ -246,6 +1038,8 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 	 * {@link BuildInfo}.
 	 *
 	 * @param branch the {@link BranchInfo} if building for a branch.
+	 * @param languages the Crowdin IDs of the languages to build or
+	 *            {@code null} to build all languages.
 	 * @param token the API token.
 	 * @return The resulting {@link BuildInfo}.
 	 * @throws MojoExecutionException If the build fails for some reason.
@@ -253,13 +1047,18 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 	@Nonnull
 	protected BuildInfo buildTranslations(
 		@Nullable BranchInfo branch,
+		@Nullable Set<String> languages,
 		@Nonnull String token
 	) throws MojoExecutionException {
-		if (branch == null) {
-			getLog().info("Asking Crowdin to build translations");
-		} else {
-			getLog().info("Asking Crowdin to build translations for branch \"" + branch.getName() + "\"");
+		StringBuilder sb = new StringBuilder("Asking Crowdin to build translations");
+		if (branch != null) {
+			sb.append(" for branch \"").append(branch.getName()).append("\"");
+		}
+		if (languages != null) {
+			sb.append(" for ").append(languages.size()).append(languages.size() == 1 ? " changed language: " : " changed languages: ");
+			sb.append(languages);
 		}
+		getLog().info(sb.toString());
 
 		BuildInfo build = CrowdinAPI.createBuild(
 			client,
@@ -269,8 +1068,23 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 			skipUntranslatedStrings,
 			skipUntranslatedFiles,
 			exportApprovedOnly,
+			languages == null ? null : languages.toArray(new String[languages.size()]),
 			getLog()
 		);
+		return completeBuild(build, token);
+	}
+
+	/**
+	 * Waits for the specified build to finish.
+	 *
+	 * @param build the {@link BuildInfo} of the started build.
+	 * @param token the API token.
+	 * @return The finished {@link BuildInfo}.
+	 * @throws MojoExecutionException If an error occurs during the operation
+	 *             or if the build doesn't finish successfully.
+	 */
+	@Nonnull
+	protected BuildInfo completeBuild(@Nonnull BuildInfo build, @Nonnull String token) throws MojoExecutionException {
 		build = waitForBuild(
 			build,
 			2000L,
@@ -288,21 +1102,408 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 	}
 
 	/**
-	 * Downloads the translations status file to the intermediary
+	 * Asks Crowdin to build the translations for the predicted branch in the
+	 * background.
+	 *
+	 * @param executor the {@link ExecutorService} to use.
+	 * @param branchId the ID of the predicted branch or {@code null} for the
+	 *            Crowdin "root branch".
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 * @return The {@link Future} {@link BuildInfo} of the started build.
+	 */
+	@Nonnull
+	protected Future<BuildInfo> requestSpeculativeBuild(
+		@Nonnull ExecutorService executor,
+		@Nullable final Long branchId,
+		@Nonnull final String token,
+		@Nonnull final Log logger
+	) {
+		logger.info(
+			"Asking Crowdin to build translations for the predicted " +
+			(branchId == null ? "root branch" : "branch with ID " + branchId)
+		);
+		return executor.submit(new Callable<BuildInfo>() {
+
+			@Override
+			public BuildInfo call() throws MojoExecutionException {
+				return CrowdinAPI.createBuild(
+					client,
+					projectId,
+					token,
+					branchId,
+					skipUntranslatedStrings,
+					skipUntranslatedFiles,
+					exportApprovedOnly,
+					null,
+					logger
+				);
+			}
+		});
+	}
+
+	/**
+	 * Adopts the specified speculative build if it was started for the
+	 * resolved branch and waits for it to finish. If it was started for
+	 * another branch it's canceled.
+	 *
+	 * @param speculative the {@link Future} {@link BuildInfo} of the
+	 *            speculative build.
+	 * @param predictedBranchId the ID of the predicted branch or {@code null}
+	 *            for the Crowdin "root branch".
+	 * @param branch the resolved {@link BranchInfo} or {@code null} for the
+	 *            Crowdin "root branch".
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 * @return The finished {@link BuildInfo} or {@code null} if the
+	 *         speculative build couldn't be used.
+	 * @throws MojoExecutionException If the adopted build fails.
+	 */
+	@Nullable
+	protected BuildInfo adoptSpeculativeBuild(
+		@Nonnull Future<BuildInfo> speculative,
+		@Nullable Long predictedBranchId,
+		@Nullable BranchInfo branch,
+		@Nonnull String token,
+		@Nonnull Log logger
+	) throws MojoExecutionException {
+		Long branchId = branch == null ? null : Long.valueOf(branch.getId());
+		if (!Objects.equals(predictedBranchId, branchId)) {
+			logger.info("The branch prediction was wrong, discarding the speculative build");
+			discardSpeculativeBuild(speculative, token, logger);
+			return null;
+		}
+		BuildInfo build;
+		try {
+			build = ConcurrencyUtil.getResult(speculative, "Failed to start the speculative build");
+		} catch (MojoExecutionException e) {
+			logger.warn(e.getMessage());
+			return null;
+		}
+		logger.info("The branch prediction was right, using the speculative build");
+		return completeBuild(build, token);
+	}
+
+	/**
+	 * Cancels the specified speculative build once it has been started. Any
+	 * failure is logged and otherwise ignored.
+	 *
+	 * @param speculative the {@link Future} {@link BuildInfo} of the
+	 *            speculative build.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 */
+	protected void discardSpeculativeBuild(
+		@Nonnull Future<BuildInfo> speculative,
+		@Nonnull String token,
+		@Nonnull Log logger
+	) {
+		try {
+			BuildInfo build = ConcurrencyUtil.getResult(speculative, "Failed to start the speculative build");
+			CrowdinAPI.cancelBuild(client, projectId, build.getId(), token, logger);
+		} catch (MojoExecutionException e) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to cancel the speculative build: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Reads the ID of the branch of the previous fetch from
 	 * {@link AbstractCrowdinMojo#downloadFolder}.
 	 *
+	 * @param logger the {@link Log} to log to.
+	 * @return The branch ID or {@code null} if it was the Crowdin "root
+	 *         branch" or isn't recorded.
+	 */
+	@Nullable
+	protected Long loadLastBranchId(@Nonnull Log logger) {
+		Path file = downloadFolderPath.resolve(STATE_FOLDER).resolve(LAST_BRANCH_FILENAME);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try {
+			String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+			return content.isEmpty() ? null : Long.valueOf(content);
+		} catch (IOException | NumberFormatException e) {
+			logger.warn("Ignoring invalid last branch record \"" + file + "\": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Records the specified branch as the branch of the last fetch in the
+	 * specified folder. Any failure is logged and otherwise ignored.
+	 *
+	 * @param folder the download or staging folder.
+	 * @param branch the {@link BranchInfo} or {@code null} for the Crowdin
+	 *            "root branch".
+	 * @param logger the {@link Log} to log to.
+	 */
+	protected void saveLastBranch(@Nonnull Path folder, @Nullable BranchInfo branch, @Nonnull Log logger) {
+		Path file = folder.resolve(STATE_FOLDER).resolve(LAST_BRANCH_FILENAME);
+		try {
+			Files.createDirectories(file.getParent());
+			Files.write(
+				file,
+				(branch == null ? "" : Long.toString(branch.getId())).getBytes(StandardCharsets.UTF_8)
+			);
+		} catch (IOException e) {
+			logger.warn("Failed to write last branch record \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Extracts the specified translations archive to the specified staging
+	 * folder. Entries are filtered by name using the archive's central
+	 * directory before anything is inflated, so that branch files and files
+	 * that don't belong to any {@link AbstractCrowdinMojo#translationFileSets}
+	 * are never written, and the remaining files are inflated in parallel.
+	 * <p>
+	 * Each file is hashed while it's inflated and compared to the
+	 * corresponding file in {@link AbstractCrowdinMojo#downloadFolder}, as
+	 * recorded in the download manifest. Unchanged files are linked or copied
+	 * from {@link AbstractCrowdinMojo#downloadFolder} so that they keep their
+	 * modification time, only changed files are written.
+	 * <p>
+	 * If the archive only contains some languages, the files of the other
+	 * languages are carried over from {@link AbstractCrowdinMojo#downloadFolder}.
+	 *
+	 * @param archive the translations archive.
+	 * @param stagingFolder the folder to extract to.
+	 * @param filterBranchNames the branch names to filter out or {@code null}.
+	 * @param fileSetMatcher the {@link FileSetMatcher} that files must match
+	 *            to be extracted or {@code null} to extract all files.
+	 * @param languages the Crowdin IDs of the languages in the archive if it
+	 *            only contains some languages, or {@code null} if it contains
+	 *            all languages.
+	 * @param logger the {@link Log} to log to.
+	 * @return The number of files in the archive after filtering.
 	 * @throws MojoExecutionException If an error occurs during the operation.
 	 */
-	protected void downloadStatusFile() throws MojoExecutionException {
-		if (statusFiles == null || statusFiles.isEmpty()) {
+	protected int extractArchive(
+		@Nonnull Path archive,
+		@Nonnull Path stagingFolder,
+		@Nullable Set<String> filterBranchNames,
+		@Nullable FileSetMatcher fileSetMatcher,
+		@Nullable Set<String> languages,
+		@Nonnull Log logger
+	) throws MojoExecutionException {
+		Path root = downloadFolderPath.toAbsolutePath().normalize();
+		Path staging = stagingFolder.toAbsolutePath().normalize();
+		DownloadManifest previous = DownloadManifest.load(
+			root.resolve(STATE_FOLDER).resolve(DOWNLOAD_MANIFEST_FILENAME),
+			logger
+		);
+		DownloadManifest manifest = new DownloadManifest();
+		List<ExtractTask> tasks = new ArrayList<>();
+		Set<String> languageFolders = languages == null ? null : new HashSet<>(languages);
+		int written = 0;
+		int carried = 0;
+		int unused = 0;
+		try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+			Files.createDirectories(staging);
+			Set<Path> folders = new HashSet<>();
+			folders.add(staging);
+			Path folder;
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (filterBranchNames != null && isBranchEntry(entry.getName(), filterBranchNames)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Filtering out branch element \"" + entry.getName() + "\"");
+					}
+					continue;
+				}
+				Path path = staging.resolve(entry.getName()).normalize();
+				if (!path.startsWith(staging) || path.startsWith(staging.resolve(STATE_FOLDER))) {
+					throw new MojoExecutionException(
+						"Archive entry \"" + entry.getName() + "\" is outside the download folder"
+					);
+				}
+				if (languageFolders != null && !path.equals(staging)) {
+					languageFolders.add(staging.relativize(path).getName(0).toString());
+				}
+				if (entry.isDirectory()) {
+					// Folders are created for the files that are extracted
+					continue;
+				}
+				Path relativePath = staging.relativize(path);
+				String relativePathString = FileUtil.formatPath(relativePath, false);
+				if (fileSetMatcher != null && !fileSetMatcher.accepts(relativePathString)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Skipping \"" + entry.getName() + "\" which isn't part of any translation file set");
+					}
+					unused++;
+					continue;
+				}
+				folder = path.getParent();
+				if (folder != null && folders.add(folder)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Creating folder \"" + staging.relativize(folder) + "\"");
+					}
+					Files.createDirectories(folder);
+				}
+				tasks.add(new ExtractTask(
+					zipFile,
+					entry,
+					root.resolve(relativePath),
+					path,
+					relativePathString,
+					previous
+				));
+			}
+
+			if (!tasks.isEmpty()) {
+				ExecutorService executor = ConcurrencyUtil.createThreadPool(
+					"crowdin-extract",
+					Math.min(tasks.size(), Runtime.getRuntime().availableProcessors())
+				);
+				List<FileRecord> records;
+				try {
+					records = ConcurrencyUtil.invokeAll(executor, tasks, "Failed to extract translation files");
+				} finally {
+					executor.shutdownNow();
+				}
+				for (int i = 0; i < tasks.size(); i++) {
+					ExtractTask task = tasks.get(i);
+					manifest.put(task.getRelativePath(), records.get(i));
+					if (task.isWritten()) {
+						written++;
+						if (logger.isDebugEnabled()) {
+							logger.debug("Wrote \"" + task.getRelativePath() + "\"");
+						}
+					}
+				}
+			}
+
+			if (languageFolders != null) {
+				for (Entry<String, FileRecord> entry : previous.getFiles().entrySet()) {
+					String relativePath = entry.getKey();
+					List<String> pathElements = FileUtil.splitPath(relativePath, true);
+					if (
+						manifest.contains(relativePath) ||
+						pathElements.isEmpty() ||
+						languageFolders.contains(pathElements.get(0)) ||
+						fileSetMatcher != null && !fileSetMatcher.accepts(relativePath)
+					) {
+						continue;
+					}
+					Path source = root.resolve(relativePath);
+					if (!Files.isRegularFile(source)) {
+						continue;
+					}
+					Path target = staging.resolve(relativePath);
+					folder = target.getParent();
+					if (folder != null && folders.add(folder)) {
+						Files.createDirectories(folder);
+					}
+					FileUtil.linkOrCopy(source, target);
+					manifest.put(relativePath, entry.getValue());
+					carried++;
+				}
+			}
+		} catch (IOException e) {
+			throw new MojoExecutionException("Failed to extract translation files: " + e.getMessage(), e);
+		}
+
+		Path manifestFile = staging.resolve(STATE_FOLDER).resolve(DOWNLOAD_MANIFEST_FILENAME);
+		try {
+			manifest.save(manifestFile);
+		} catch (IOException e) {
+			throw new MojoExecutionException(
+				"Failed to write download manifest \"" + manifestFile + "\": " + e.getMessage(),
+				e
+			);
+		}
+		int removed = 0;
+		for (String path : previous.getPaths()) {
+			if (!manifest.contains(path)) {
+				removed++;
+			}
+		}
+		if (!tasks.isEmpty() || removed > 0) {
+			logger.info(
+				"Updated " + written + " files, kept " + (tasks.size() - written) +
+				" unchanged files and removed " + removed + " obsolete files"
+			);
+		}
+		if (carried > 0) {
+			logger.info("Kept " + carried + " files for unchanged languages");
+		}
+		if (unused > 0) {
+			logger.info("Skipped " + unused + " files that aren't part of any translation file set");
+		}
+		return tasks.size();
+	}
+
+	/**
+	 * Evaluates whether the specified archive entry belongs to one of the
+	 * specified branches. The first path element is the language folder, so
+	 * it is ignored.
+	 *
+	 * @param entryName the archive entry name.
+	 * @param branchNames the branch names.
+	 * @return {@code true} if the entry belongs to one of the branches,
+	 *         {@code false} otherwise.
+	 */
+	protected static boolean isBranchEntry(@Nonnull String entryName, @Nonnull Set<String> branchNames) {
+		List<String> pathElements = FileUtil.splitPath(entryName, true);
+		for (int i = 1; i < pathElements.size(); i++) {
+			if (branchNames.contains(pathElements.get(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Deletes the specified temporary file, logging a warning if it fails.
+	 *
+	 * @param file the file to delete.
+	 */
+	protected void deleteTempFile(@Nonnull Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			getLog().warn("Failed to delete temporary file \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the translations status file to the specified folder. If the
+	 * status is unchanged, the status file in
+	 * {@link AbstractCrowdinMojo#downloadFolder} is linked or copied instead.
+	 *
+	 * @param folder the folder to write the status file to.
+	 * @param statusFuture the {@link Future} translations status or
+	 *            {@code null} if no status files are configured.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	protected void downloadStatusFile(
+		@Nonnull Path folder,
+		@Nullable Future<String> statusFuture
+	) throws MojoExecutionException {
+		if (statusFuture == null) {
 			return;
 		}
 
-		String status = CrowdinAPI.getTranslationStatus(client, projectId, server.getPassword(), getLog());
-		Path statusFile = downloadFolderPath.resolve(STATUS_DOWNLOAD_FILENAME);
-		getLog().info("Writing translations status to \"" + statusFile + "\"");
-		try (BufferedWriter writer = Files.newBufferedWriter(statusFile, StandardCharsets.UTF_8)) {
-			writer.write(status);
+		String status = ConcurrencyUtil.getResult(statusFuture, "Failed to get translations status");
+		Path existingFile = downloadFolderPath.resolve(STATUS_DOWNLOAD_FILENAME);
+		Path statusFile = folder.resolve(STATUS_DOWNLOAD_FILENAME);
+		byte[] content = status.getBytes(StandardCharsets.UTF_8);
+		try {
+			if (
+				Files.isRegularFile(existingFile) &&
+				Files.size(existingFile) == content.length &&
+				Arrays.equals(Files.readAllBytes(existingFile), content)
+			) {
+				getLog().info("Translations status is unchanged");
+				FileUtil.linkOrCopy(existingFile, statusFile);
+				return;
+			}
+			getLog().info("Writing translations status");
+			Files.write(statusFile, content);
 		} catch (IOException e) {
 			throw new MojoExecutionException("Failed to write file \"" + statusFile + "\": " + e.getMessage(), e);
 		}
@@ -367,6 +1568,135 @@ public class FetchCrowdinMojo extends AbstractCrowdinMojo {
 		return result;
 	}
 
+	/**
+	 * A {@link Callable} that inflates a single {@link ZipEntry} while
+	 * calculating its digest, and writes it to a file only if the content
+	 * differs from the existing file. If the content is unchanged, the existing
+	 * file is linked or copied instead. Each worker thread reuses its own
+	 * buffer.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class ExtractTask implements Callable<FileRecord> {
+
+		/** The largest entry that is held in memory while it's being hashed */
+		protected static final long MAX_IN_MEMORY_SIZE = 4L * 1024L * 1024L;
+
+		private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<byte[]>() {
+
+			@Override
+			protected byte[] initialValue() {
+				return new byte[FileUtil.BUFFER_SIZE];
+			}
+		};
+
+		@Nonnull
+		private final ZipFile zipFile;
+
+		@Nonnull
+		private final ZipEntry entry;
+
+		@Nonnull
+		private final Path existing;
+
+		@Nonnull
+		private final Path target;
+
+		@Nonnull
+		private final String relativePath;
+
+		@Nonnull
+		private final DownloadManifest previous;
+
+		private volatile boolean written;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param zipFile the {@link ZipFile} to extract from.
+		 * @param entry the {@link ZipEntry} to extract.
+		 * @param existing the existing file to compare with.
+		 * @param target the file to write to.
+		 * @param relativePath the path of {@code existing} relative to the
+		 *            download folder using {@code /} as separator.
+		 * @param previous the {@link DownloadManifest} from the previous
+		 *            extraction.
+		 */
+		public ExtractTask(
+			@Nonnull ZipFile zipFile,
+			@Nonnull ZipEntry entry,
+			@Nonnull Path existing,
+			@Nonnull Path target,
+			@Nonnull String relativePath,
+			@Nonnull DownloadManifest previous
+		) {
+			this.zipFile = zipFile;
+			this.entry = entry;
+			this.existing = existing;
+			this.target = target;
+			this.relativePath = relativePath;
+			this.previous = previous;
+		}
+
+		/**
+		 * @return The path of the target file relative to the download folder
+		 *         using {@code /} as separator.
+		 */
+		@Nonnull
+		public String getRelativePath() {
+			return relativePath;
+		}
+
+		/**
+		 * @return {@code true} if the target file was written, {@code false}
+		 *         if it was left untouched.
+		 */
+		public boolean isWritten() {
+			return written;
+		}
+
+		@Override
+		public FileRecord call() throws IOException {
+			byte[] buffer = BUFFER.get();
+			MessageDigest digest = FileUtil.createMessageDigest(DownloadManifest.DIGEST_ALGORITHM);
+			long entrySize = entry.getSize();
+			ByteArrayOutputStream content = entrySize >= 0L && entrySize <= MAX_IN_MEMORY_SIZE ?
+				new ByteArrayOutputStream((int) entrySize) :
+				null;
+			long size = 0L;
+			try (InputStream is = zipFile.getInputStream(entry)) {
+				int read;
+				while ((read = is.read(buffer)) != -1) {
+					digest.update(buffer, 0, read);
+					if (content != null) {
+						content.write(buffer, 0, read);
+					}
+					size += read;
+				}
+			}
+			String hexDigest = StringUtil.toHexString(digest.digest());
+			if (previous.isUnchanged(relativePath, existing, size, hexDigest)) {
+				FileUtil.linkOrCopy(existing, target);
+			} else {
+				try (OutputStream os = Files.newOutputStream(target)) {
+					if (content != null) {
+						content.writeTo(os);
+					} else {
+						// Too large to keep in memory, inflate again
+						try (InputStream is = zipFile.getInputStream(entry)) {
+							int read;
+							while ((read = is.read(buffer)) != -1) {
+								os.write(buffer, 0, read);
+							}
+						}
+					}
+				}
+				written = true;
+			}
+			return new FileRecord(size, Files.getLastModifiedTime(target).toMillis(), hexDigest);
+		}
+	}
+
 	@Override
 	protected void initializeServer() throws MojoExecutionException {
 		super.initializeServer();
@@ -18,12 +18,12 @@
  */
 package org.digitalmediaserver.crowdin;
 
+import java.io.File;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.digitalmediaserver.crowdin.configuration.StatusFile;
-import org.digitalmediaserver.crowdin.configuration.TranslationFileSet;
+import org.digitalmediaserver.crowdin.configuration.DeployMode;
 
 
 /**
@@ -67,17 +67,115 @@ public class PullCrowdinMojo extends AbstractCrowdinMojo {
 	@Parameter(property = "buildTimeouot", defaultValue = "60")
 	protected Integer buildTimeout;
 
+	/**
+	 * The maximum number of parallel connections to use when downloading the
+	 * translations archive. The archive is only split into segments if the
+	 * server supports ranged requests.
+	 */
+	@Parameter(property = "downloadSegments", defaultValue = "4")
+	protected int downloadSegments;
+
+	/**
+	 * The number of times to resume or retry a failed download of the
+	 * translations archive.
+	 */
+	@Parameter(property = "downloadRetries", defaultValue = "3")
+	protected int downloadRetries;
+
+	/**
+	 * The host level folder used to cache translations archives by build, so
+	 * that the same build isn't downloaded more than once.
+	 */
+	@Parameter(property = "archiveCacheFolder", defaultValue = "${user.home}/.m2/crowdin-cache")
+	protected File archiveCacheFolder;
+
+	/**
+	 * The maximum total size of the archive cache in MiB. The least recently
+	 * used archives are evicted when the size is exceeded. {@code 0} disables
+	 * the archive cache.
+	 */
+	@Parameter(property = "archiveCacheSize", defaultValue = "256")
+	protected int archiveCacheSize;
+
+	/**
+	 * Whether to only build the languages whose translation progress has
+	 * changed since the previous fetch, and skip the build entirely if none
+	 * have. Isn't used if {@link #directDeploy} is {@code true}.
+	 */
+	@Parameter(property = "incrementalBuild", defaultValue = "false")
+	protected boolean incrementalBuild;
+
+	/**
+	 * Whether to skip the build and download if the project's last activity
+	 * and the source file revisions at Crowdin are unchanged since the
+	 * previous fetch. Isn't used if {@link #directDeploy} is {@code true}.
+	 */
+	@Parameter(property = "skipIfUpToDate", defaultValue = "false")
+	protected boolean skipIfUpToDate;
+
+	/**
+	 * The maximum number of builds to run at Crowdin at the same time when
+	 * fetching several {@link AbstractCrowdinMojo#branches} or
+	 * {@link AbstractCrowdinMojo#buildVariants}.
+	 */
+	@Parameter(property = "concurrentBuilds", defaultValue = "4")
+	protected int concurrentBuilds;
+
+	/**
+	 * Whether to ask Crowdin to build the translations for the predicted
+	 * branch at startup, while the branch is being resolved. The prediction
+	 * is the branch of the previous fetch, or the Crowdin "root" if there is
+	 * none. Isn't used together with {@link #incrementalBuild} or
+	 * {@link #skipIfUpToDate}.
+	 */
+	@Parameter(property = "speculativeBuild", defaultValue = "false")
+	protected boolean speculativeBuild;
+
+	/**
+	 * Deploys the translation files directly from the downloaded archive to
+	 * their configured location, without writing them to
+	 * {@link AbstractCrowdinMojo#downloadFolder} first.
+	 */
+	@Parameter(property = "directDeploy", defaultValue = "false")
+	protected boolean directDeploy;
+
+	/**
+	 * The number of translation files to deploy at the same time. If
+	 * {@code 0} or less, the number of available processors is used.
+	 */
+	@Parameter(property = "deployThreads", defaultValue = "0")
+	protected int deployThreads;
+
+	/**
+	 * Whether to skip translation files whose source content and options are
+	 * unchanged since the previous deployment, as long as the deployed file
+	 * is also unchanged.
+	 */
+	@Parameter(property = "incrementalDeploy", defaultValue = "true")
+	protected boolean incrementalDeploy;
+
+	/**
+	 * Whether to remove previously deployed files whose source has
+	 * disappeared, unless they have been modified. Only used when
+	 * {@link #incrementalDeploy} is {@code true}.
+	 */
+	@Parameter(property = "removeObsoleteFiles", defaultValue = "false")
+	protected boolean removeObsoleteFiles;
+
+	/**
+	 * How translation files that don't need to be transformed are deployed
+	 * from {@link AbstractCrowdinMojo#downloadFolder}. Not used when
+	 * {@link #directDeploy} is {@code true}.
+	 */
+	@Parameter(property = "deployMode", defaultValue = "copy")
+	protected DeployMode deployMode;
+
 	@Override
 	public void execute() throws MojoExecutionException {
-		initializeParameters();
-		createClient();
-		initializeServer();
-		TranslationFileSet.initialize(translationFileSets);
-		StatusFile.initialize(statusFiles);
+		initializeConcurrently(true, true);
 
 		getLog().info("Executing fetch and deploy goals");
 
-		getLog().debug("Executing fetch");
 		FetchCrowdinMojo fetch = new FetchCrowdinMojo();
 		fetch.setCrowdinServerId(crowdinServerId);
 		fetch.setDownloadFolder(downloadFolderPath);
@@ -90,23 +188,50 @@ public class PullCrowdinMojo extends AbstractCrowdinMojo {
 		fetch.setRootBranch(rootBranch);
 		fetch.setServer(server);
 		fetch.setClient(client);
+		fetch.setMetadata(getMetadata());
+		fetch.setGitBranch(gitBranch);
 		fetch.setSkipUntranslatedFiles(skipUntranslatedFiles);
 		fetch.setSkipUntranslatedStrings(skipUntranslatedStrings);
 		fetch.setExportApprovedOnly(exportApprovedOnly);
+		fetch.setDownloadSegments(downloadSegments);
+		fetch.setDownloadRetries(downloadRetries);
+		fetch.setArchiveCacheFolder(archiveCacheFolder);
+		fetch.setArchiveCacheSize(archiveCacheSize);
+		fetch.setIncrementalBuild(incrementalBuild);
+		fetch.setSkipIfUpToDate(skipIfUpToDate);
+		fetch.setConcurrentBuilds(concurrentBuilds);
+		fetch.setSpeculativeBuild(speculativeBuild);
+		fetch.setBranches(branches);
+		fetch.setBuildVariants(buildVariants);
 		fetch.setTranslationFileSets(translationFileSets);
 		fetch.setStatusFiles(statusFiles);
 		fetch.setLog(getLog());
-		fetch.doExecute();
 
-		getLog().debug("Executing deploy");
 		DeployCrowdinMojo deploy = new DeployCrowdinMojo();
 		deploy.setDownloadFolder(downloadFolderPath);
 		deploy.setTranslationFileSets(translationFileSets);
 		deploy.setStatusFiles(statusFiles);
 		deploy.setLineSeparator(lineSeparator);
 		deploy.setComment(comment);
+		deploy.setProject(project);
+		deploy.setBranches(branches);
+		deploy.setBranchesDeployFolder(branchesDeployFolder);
+		deploy.setBuildVariants(buildVariants);
+		deploy.setDeployThreads(deployThreads);
+		deploy.setIncrementalDeploy(incrementalDeploy);
+		deploy.setRemoveObsoleteFiles(removeObsoleteFiles);
+		deploy.setDeployMode(deployMode);
 		deploy.setLog(getLog());
-		deploy.execute();
+
+		if (directDeploy) {
+			getLog().debug("Executing fetch with direct deploy");
+			fetch.doExecute(deploy);
+		} else {
+			getLog().debug("Executing fetch");
+			fetch.doExecute();
+			getLog().debug("Executing deploy");
+			deploy.execute();
+		}
 
 		getLog().info("Pull sequence completed");
 	}
@@ -106,15 +106,12 @@ public class PushCrowdinMojo extends AbstractCrowdinMojo {
 			);
 		}
 
-		initializeParameters();
-		initializeServer();
-		createClient();
-		TranslationFileSet.initialize(translationFileSets);
+		initializeConcurrently(true, false);
 
 		getLog().info("Retrieving Crowdin project information");
 
 		String token = server.getPassword();
-		ProjectInfo projectInfo = CrowdinAPI.getProjectInfo(client, projectId, token, getLog());
+		ProjectInfo projectInfo = getMetadata().getProjectInfo();
 		if (projectInfo.getName() == null || !projectInfo.getName().equals(projectName)) {
 			throw new MojoExecutionException(
 				"Crowdin project name (" + projectInfo.getName() +
@@ -138,36 +135,13 @@ public class PushCrowdinMojo extends AbstractCrowdinMojo {
 				pushFileName = (tmpPath = pushFile.getFileName()) == null ? "" : tmpPath.toString();
 				String pushFolder = FileUtil.getPushFolder(fileSet, true);
 				if (isNotBlank(pushFolder)) {
-					folder = CrowdinAPI.getFolder(client, projectId, branch, pushFolder, true, token, getLog());
+					folder = getMetadata().getFolder(branch, pushFolder, true);
 				}
-				file = CrowdinAPI.getFileIfExists(
-					client,
-					projectId,
-					branch,
-					folder,
-					fileSet.getBaseFileName(),
-					token,
-					getLog()
-				);
+				file = getMetadata().getFileIfExists(branch, folder, fileSet.getBaseFileName());
 				if (file == null && branch != null) {
-					FolderInfo templateFolder = folder == null ? null : CrowdinAPI.getFolder(
-						client,
-						projectId,
-						null,
-						pushFolder,
-						false,
-						token,
-						getLog()
-					);
+					FolderInfo templateFolder = folder == null ? null : getMetadata().getFolder(null, pushFolder, false);
 					if (folder == null || templateFolder != null) {
-						templateFile = CrowdinAPI.getFileIfExists(
-							client,
-							projectId,
-							null,
-							templateFolder,
-							fileSet.getBaseFileName(),
-							token, getLog()
-						);
+						templateFile = getMetadata().getFileIfExists(null, templateFolder, fileSet.getBaseFileName());
 					}
 				}
 
@@ -128,6 +128,9 @@ public class CrowdinAPI {
 	) throws IOException {
 		HttpClientBuilder clientBuilder = HttpClientBuilder.create();
 		clientBuilder.setUserAgent("crowdin-maven-plugin/" + projectVersion);
+		// Allow parallel segmented downloads
+		clientBuilder.setMaxConnPerRoute(HTTP_MAX_CONNECTIONS_PER_ROUTE);
+		clientBuilder.setMaxConnTotal(HTTP_MAX_CONNECTIONS_TOTAL);
 
 		RequestConfig.Builder requestConfigBuilder = RequestConfig.custom();
 		int timeoutMS;
@@ -426,6 +429,8 @@ public class CrowdinAPI {
 	 * @param skipUntranslatedFiles whether to skip untranslated files. Can't be
 	 *            combined with {@code skipUntranslatedStrings}.
 	 * @param exportApprovedOnly whether to export approved translations only.
+	 * @param targetLanguageIds the Crowdin IDs of the languages to build or
+	 *            {@code null} to build all languages.
 	 * @param logger the {@link Log} to log to.
 	 * @return The resulting {@link BuildInfo}.
 	 * @throws MojoExecutionException If an error occurs during the operation.
@@ -439,6 +444,7 @@ public class CrowdinAPI {
 		boolean skipUntranslatedStrings,
 		boolean skipUntranslatedFiles,
 		boolean exportApprovedOnly,
+		@Nullable String[] targetLanguageIds,
 		@Nullable Log logger
 	) throws MojoExecutionException {
 		CreateBuildRequest payload = new CreateBuildRequest();
@@ -448,6 +454,9 @@ public class CrowdinAPI {
 		if (branchId != null) {
 			payload.setBranchId(branchId);
 		}
+		if (targetLanguageIds != null) {
+			payload.setTargetLanguageIds(targetLanguageIds);
+		}
 
 		if (logger != null && logger.isDebugEnabled()) {
 			logger.debug("Requesting a new build with: " + payload);
@@ -489,6 +498,51 @@ public class CrowdinAPI {
 		return build;
 	}
 
+	/**
+	 * Cancels the specified build at Crowdin.
+	 *
+	 * @param httpClient the {@link CloseableHttpClient} to use.
+	 * @param projectId the Crowdin project ID.
+	 * @param buildId the build ID of the build to cancel.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	public static void cancelBuild(
+		@Nonnull CloseableHttpClient httpClient,
+		long projectId,
+		long buildId,
+		@Nonnull String token,
+		@Nullable Log logger
+	) throws MojoExecutionException {
+		if (logger != null && logger.isDebugEnabled()) {
+			logger.debug("Requesting to cancel build " + buildId);
+		}
+		try {
+			CrowdinAPI.sendRequest(
+				httpClient,
+				HTTPMethod.DELETE,
+				"projects/" + projectId + "/translations/builds/" + buildId,
+				null,
+				null,
+				token,
+				null,
+				null,
+				Void.class,
+				logger
+			);
+		} catch (HttpException e) {
+			throw new MojoExecutionException(
+				"Error while canceling build: " + e.getMessage(),
+				e
+			);
+		}
+
+		if (logger != null && logger.isDebugEnabled()) {
+			logger.debug("Crowdin canceled build " + buildId);
+		}
+	}
+
 	/**
 	 * Queries Crowdin for the status of the specified build.
 	 *
@@ -0,0 +1,373 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.api;
+
+import static org.digitalmediaserver.crowdin.tool.Constants.GRAPHQL_URL;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.http.HttpException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.digitalmediaserver.crowdin.api.CrowdinAPI.HTTPMethod;
+import org.digitalmediaserver.crowdin.api.response.BranchInfo;
+import org.digitalmediaserver.crowdin.api.response.FileInfo;
+import org.digitalmediaserver.crowdin.api.response.FolderInfo;
+import org.digitalmediaserver.crowdin.api.response.ProjectInfo;
+import org.digitalmediaserver.crowdin.tool.FileUtil;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+
+/**
+ * A {@link MetadataProvider} that retrieves the project, its branches,
+ * folders and files from the Crowdin GraphQL API in a single query the first
+ * time any of them is needed, and answers all later calls from memory.
+ * Folders created through this provider are added to the retrieved metadata.
+ * <p>
+ * If the query fails, or if the project has more elements than a single
+ * query returns, this provider falls back to the {@link RestMetadataProvider}
+ * for the remainder of its lifetime.
+ *
+ * @author Nadahar
+ */
+@ThreadSafe
+public class GraphQLMetadataProvider implements MetadataProvider {
+
+	/** The maximum number of elements of each kind to retrieve */
+	public static final int MAX_ELEMENTS = 10000;
+
+	/** The metadata query */
+	protected static final String QUERY =
+		"query ($projectId: Int!, $first: Int!) {\n" +
+		"  viewer {\n" +
+		"    project(id: $projectId) {\n" +
+		"      id name identifier createdAt updatedAt lastActivity\n" +
+		"      branches(first: $first) {\n" +
+		"        totalCount edges { node { id name title createdAt updatedAt } }\n" +
+		"      }\n" +
+		"      directories(first: $first) {\n" +
+		"        totalCount edges { node { id branchId directoryId name title path createdAt updatedAt } }\n" +
+		"      }\n" +
+		"      files(first: $first) {\n" +
+		"        totalCount edges { node {\n" +
+		"          id branchId directoryId name title path type status revisionId createdAt updatedAt\n" +
+		"        } }\n" +
+		"      }\n" +
+		"    }\n" +
+		"  }\n" +
+		"}";
+
+	/** The {@link CloseableHttpClient} to use */
+	@Nonnull
+	protected final CloseableHttpClient httpClient;
+
+	/** The Crowdin project ID */
+	protected final long projectId;
+
+	/** The API token */
+	@Nonnull
+	protected final String token;
+
+	/** The {@link Log} to log to */
+	@Nullable
+	protected final Log logger;
+
+	/** The {@link MetadataProvider} to fall back to */
+	@Nonnull
+	protected final RestMetadataProvider fallback;
+
+	private final Object lock = new Object();
+
+	/** The retrieved project or {@code null} */
+	private ProjectInfo project;
+
+	/** The retrieved branches */
+	private List<BranchInfo> branches;
+
+	/** The retrieved folders */
+	private List<FolderInfo> folders;
+
+	/** The retrieved files */
+	private List<FileInfo> files;
+
+	/** Whether the query has failed */
+	private boolean failed;
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param httpClient the {@link CloseableHttpClient} to use.
+	 * @param projectId the Crowdin project ID.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 */
+	public GraphQLMetadataProvider(
+		@Nonnull CloseableHttpClient httpClient,
+		long projectId,
+		@Nonnull String token,
+		@Nullable Log logger
+	) {
+		this.httpClient = httpClient;
+		this.projectId = projectId;
+		this.token = token;
+		this.logger = logger;
+		this.fallback = new RestMetadataProvider(httpClient, projectId, token, logger);
+	}
+
+	@Override
+	public ProjectInfo getProjectInfo() throws MojoExecutionException {
+		synchronized (lock) {
+			if (load()) {
+				return project;
+			}
+		}
+		return fallback.getProjectInfo();
+	}
+
+	@Override
+	public List<BranchInfo> listBranches(String branchName) throws MojoExecutionException {
+		synchronized (lock) {
+			if (load()) {
+				List<BranchInfo> result = new ArrayList<>();
+				for (BranchInfo branch : branches) {
+					if (branchName == null || branchName.equals(branch.getName())) {
+						result.add(branch);
+					}
+				}
+				return result;
+			}
+		}
+		return fallback.listBranches(branchName);
+	}
+
+	@Override
+	public List<FileInfo> listFiles(Long branchId, boolean recursion) throws MojoExecutionException {
+		synchronized (lock) {
+			if (load()) {
+				if (branchId == null) {
+					return new ArrayList<>(files);
+				}
+				List<FileInfo> result = new ArrayList<>();
+				for (FileInfo file : files) {
+					if (branchId.equals(file.getBranchId()) && (recursion || file.getDirectoryId() == null)) {
+						result.add(file);
+					}
+				}
+				return result;
+			}
+		}
+		return fallback.listFiles(branchId, recursion);
+	}
+
+	@Override
+	public FolderInfo getFolder(BranchInfo branch, String folderPath, boolean create) throws MojoExecutionException {
+		synchronized (lock) {
+			if (load()) {
+				FolderInfo result = null;
+				Long branchId = branch == null ? null : Long.valueOf(branch.getId());
+				Long parentFolderId = null;
+				for (String element : FileUtil.splitPath(folderPath, false)) {
+					FolderInfo found = null;
+					for (FolderInfo folder : folders) {
+						if (
+							element.equals(folder.getName()) &&
+							Objects.equals(parentFolderId, folder.getDirectoryId()) &&
+							(parentFolderId != null || Objects.equals(branchId, folder.getBranchId()))
+						) {
+							found = folder;
+							break;
+						}
+					}
+					if (found == null) {
+						if (!create) {
+							return null;
+						}
+						found = CrowdinAPI.createFolder(
+							httpClient,
+							projectId,
+							element,
+							parentFolderId == null ? branchId : null,
+							parentFolderId,
+							token,
+							logger
+						);
+						folders.add(found);
+					}
+					result = found;
+					parentFolderId = Long.valueOf(found.getId());
+				}
+				return result;
+			}
+		}
+		return fallback.getFolder(branch, folderPath, create);
+	}
+
+	@Override
+	public FileInfo getFileIfExists(
+		BranchInfo branch,
+		FolderInfo folder,
+		String fileName
+	) throws MojoExecutionException {
+		synchronized (lock) {
+			if (load()) {
+				List<String> elements = FileUtil.splitPath(fileName, false);
+				if (elements.isEmpty()) {
+					return null;
+				}
+				String name = elements.get(elements.size() - 1);
+				Long branchId = branch == null ? null : Long.valueOf(branch.getId());
+				Long folderId = folder == null ? null : Long.valueOf(folder.getId());
+				for (FileInfo file : files) {
+					if (
+						name.equals(file.getName()) &&
+						Objects.equals(folderId, file.getDirectoryId()) &&
+						(folderId != null || Objects.equals(branchId, file.getBranchId()))
+					) {
+						return file;
+					}
+				}
+				return null;
+			}
+		}
+		return fallback.getFileIfExists(branch, folder, fileName);
+	}
+
+	/**
+	 * Retrieves the metadata unless it has already been retrieved or the
+	 * query has failed. Must be called while holding {@link #lock}.
+	 *
+	 * @return {@code true} if the metadata is available, {@code false} if the
+	 *         {@link #fallback} must be used.
+	 */
+	private boolean load() {
+		if (project != null) {
+			return true;
+		}
+		if (failed) {
+			return false;
+		}
+		try {
+			query();
+			return true;
+		} catch (MojoExecutionException | JsonParseException | IllegalStateException | ClassCastException e) {
+			failed = true;
+			project = null;
+			if (logger != null) {
+				logger.warn("Falling back to the REST API for project metadata: " + e.getMessage());
+			}
+			return false;
+		}
+	}
+
+	private void query() throws MojoExecutionException {
+		JsonObject variables = new JsonObject();
+		variables.addProperty("projectId", Long.valueOf(projectId));
+		variables.addProperty("first", Integer.valueOf(MAX_ELEMENTS));
+		JsonObject payload = new JsonObject();
+		payload.addProperty("query", QUERY);
+		payload.add("variables", variables);
+
+		if (logger != null && logger.isDebugEnabled()) {
+			logger.debug("Requesting project metadata using GraphQL");
+		}
+		String response;
+		try {
+			response = CrowdinAPI.sendRequest(
+				httpClient,
+				HTTPMethod.POST,
+				URI.create(GRAPHQL_URL),
+				null,
+				null,
+				token,
+				payload.toString(),
+				ContentType.APPLICATION_JSON,
+				String.class,
+				logger
+			);
+		} catch (HttpException e) {
+			throw new MojoExecutionException("Error while requesting project metadata: " + e.getMessage(), e);
+		}
+
+		JsonObject root = JsonParser.parseString(response).getAsJsonObject();
+		JsonElement errors = root.get("errors");
+		if (errors != null && errors.isJsonArray() && errors.getAsJsonArray().size() > 0) {
+			throw new MojoExecutionException("GraphQL query failed: " + errors);
+		}
+		JsonObject projectObject = root.getAsJsonObject("data").getAsJsonObject("viewer").getAsJsonObject("project");
+		if (projectObject == null) {
+			throw new MojoExecutionException("GraphQL query didn't return project " + projectId);
+		}
+		List<BranchInfo> newBranches = parseConnection(projectObject, "branches", BranchInfo.class);
+		List<FolderInfo> newFolders = parseConnection(projectObject, "directories", FolderInfo.class);
+		List<FileInfo> newFiles = parseConnection(projectObject, "files", FileInfo.class);
+		ProjectInfo newProject = CrowdinAPI.getGsonInstance().fromJson(projectObject, ProjectInfo.class);
+		if (newProject == null || newProject.getId() != projectId) {
+			throw new MojoExecutionException("GraphQL query returned an unexpected project");
+		}
+		branches = newBranches;
+		folders = newFolders;
+		files = newFiles;
+		project = newProject;
+		if (logger != null && logger.isDebugEnabled()) {
+			logger.debug(
+				"Crowdin responded with " + branches.size() + " branches, " + folders.size() +
+				" folders and " + files.size() + " files"
+			);
+		}
+	}
+
+	@Nonnull
+	private static <T> List<T> parseConnection(
+		@Nonnull JsonObject parent,
+		@Nonnull String name,
+		@Nonnull Type type
+	) throws MojoExecutionException {
+		JsonObject connection = parent.getAsJsonObject(name);
+		if (connection == null) {
+			throw new MojoExecutionException("GraphQL query didn't return " + name);
+		}
+		JsonArray edges = connection.getAsJsonArray("edges");
+		List<T> result = new ArrayList<>(edges.size());
+		for (JsonElement edge : edges) {
+			T element = CrowdinAPI.getGsonInstance().fromJson(edge.getAsJsonObject().get("node"), type);
+			if (element == null) {
+				throw new MojoExecutionException("GraphQL query returned an empty element in " + name);
+			}
+			result.add(element);
+		}
+		JsonElement totalCount = connection.get("totalCount");
+		if (totalCount != null && totalCount.getAsLong() > result.size()) {
+			throw new MojoExecutionException(
+				"The project has more " + name + " than a single GraphQL query returns (" + totalCount + ")"
+			);
+		}
+		return result;
+	}
+}
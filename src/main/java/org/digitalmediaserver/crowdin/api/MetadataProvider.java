@@ -0,0 +1,119 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.api;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.digitalmediaserver.crowdin.api.response.BranchInfo;
+import org.digitalmediaserver.crowdin.api.response.FileInfo;
+import org.digitalmediaserver.crowdin.api.response.FolderInfo;
+import org.digitalmediaserver.crowdin.api.response.ProjectInfo;
+
+
+/**
+ * This interface provides the metadata describing the structure of a Crowdin
+ * project: The project itself, its branches, folders and files. The methods
+ * correspond to the {@link CrowdinAPI} methods with the same names, with the
+ * HTTP client, project ID, token and logger bound to the instance.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @author Nadahar
+ */
+public interface MetadataProvider {
+
+	/**
+	 * Retrieves information about the project.
+	 *
+	 * @return The resulting {@link ProjectInfo}.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 * @see CrowdinAPI#getProjectInfo
+	 */
+	@Nonnull
+	ProjectInfo getProjectInfo() throws MojoExecutionException;
+
+	/**
+	 * Retrieves the branches of the project.
+	 *
+	 * @param branchName the branch name to filter by or {@code null} to list
+	 *            all branches.
+	 * @return The resulting {@link List} of {@link BranchInfo} instances.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 * @see CrowdinAPI#listBranches
+	 */
+	@Nonnull
+	List<BranchInfo> listBranches(@Nullable String branchName) throws MojoExecutionException;
+
+	/**
+	 * Retrieves the files of the project or of the specified branch.
+	 *
+	 * @param branchId the ID of the branch to list files for or {@code null}
+	 *            to list all files in the project.
+	 * @param recursion whether to include the files in the branch' folders
+	 *            when {@code branchId} is specified.
+	 * @return The resulting {@link List} of {@link FileInfo} instances.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 * @see CrowdinAPI#listFiles
+	 */
+	@Nonnull
+	List<FileInfo> listFiles(@Nullable Long branchId, boolean recursion) throws MojoExecutionException;
+
+	/**
+	 * Finds the folder with the specified path, and optionally creates it if
+	 * it doesn't exist.
+	 *
+	 * @param branch the {@link BranchInfo} if the folder belongs to a branch.
+	 * @param folderPath the folder path.
+	 * @param create if {@code true} the folder will be created if it doesn't
+	 *            exist, if {@code false} the method will return {@code null}.
+	 * @return The resulting {@link FolderInfo} if the folder exists or is
+	 *         created, {@code null} otherwise.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 * @see CrowdinAPI#getFolder
+	 */
+	@Nullable
+	FolderInfo getFolder(
+		@Nullable BranchInfo branch,
+		@Nonnull String folderPath,
+		boolean create
+	) throws MojoExecutionException;
+
+	/**
+	 * Finds the file with the specified name.
+	 *
+	 * @param branch the branch to look in.
+	 * @param folder the folder to look in. <b>Note:</b> If specified together
+	 *            with {@code branch}, {@code folder} takes precedence.
+	 * @param fileName the file name to look for. <b>Note:</b> If path elements
+	 *            are present, they will be stripped and only the file name will
+	 *            be used.
+	 * @return The resulting {@link FileInfo} or {@code null} if no such file
+	 *         exists.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 * @see CrowdinAPI#getFileIfExists
+	 */
+	@Nullable
+	FileInfo getFileIfExists(
+		@Nullable BranchInfo branch,
+		@Nullable FolderInfo folder,
+		@Nullable String fileName
+	) throws MojoExecutionException;
+}
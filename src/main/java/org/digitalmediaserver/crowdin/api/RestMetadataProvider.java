@@ -0,0 +1,106 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.api;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.digitalmediaserver.crowdin.api.response.BranchInfo;
+import org.digitalmediaserver.crowdin.api.response.FileInfo;
+import org.digitalmediaserver.crowdin.api.response.FolderInfo;
+import org.digitalmediaserver.crowdin.api.response.ProjectInfo;
+
+
+/**
+ * A {@link MetadataProvider} that uses the Crowdin REST API through
+ * {@link CrowdinAPI}, with one or more requests per method call.
+ *
+ * @author Nadahar
+ */
+@Immutable
+public class RestMetadataProvider implements MetadataProvider {
+
+	/** The {@link CloseableHttpClient} to use */
+	@Nonnull
+	protected final CloseableHttpClient httpClient;
+
+	/** The Crowdin project ID */
+	protected final long projectId;
+
+	/** The API token */
+	@Nonnull
+	protected final String token;
+
+	/** The {@link Log} to log to */
+	@Nullable
+	protected final Log logger;
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param httpClient the {@link CloseableHttpClient} to use.
+	 * @param projectId the Crowdin project ID.
+	 * @param token the API token.
+	 * @param logger the {@link Log} to log to.
+	 */
+	public RestMetadataProvider(
+		@Nonnull CloseableHttpClient httpClient,
+		long projectId,
+		@Nonnull String token,
+		@Nullable Log logger
+	) {
+		this.httpClient = httpClient;
+		this.projectId = projectId;
+		this.token = token;
+		this.logger = logger;
+	}
+
+	@Override
+	public ProjectInfo getProjectInfo() throws MojoExecutionException {
+		return CrowdinAPI.getProjectInfo(httpClient, projectId, token, logger);
+	}
+
+	@Override
+	public List<BranchInfo> listBranches(String branchName) throws MojoExecutionException {
+		return CrowdinAPI.listBranches(httpClient, projectId, token, branchName, logger);
+	}
+
+	@Override
+	public List<FileInfo> listFiles(Long branchId, boolean recursion) throws MojoExecutionException {
+		return CrowdinAPI.listFiles(httpClient, projectId, branchId, null, null, recursion, token, logger);
+	}
+
+	@Override
+	public FolderInfo getFolder(BranchInfo branch, String folderPath, boolean create) throws MojoExecutionException {
+		return CrowdinAPI.getFolder(httpClient, projectId, branch, folderPath, create, token, logger);
+	}
+
+	@Override
+	public FileInfo getFileIfExists(
+		BranchInfo branch,
+		FolderInfo folder,
+		String fileName
+	) throws MojoExecutionException {
+		return CrowdinAPI.getFileIfExists(httpClient, projectId, branch, folder, fileName, token, logger);
+	}
+}
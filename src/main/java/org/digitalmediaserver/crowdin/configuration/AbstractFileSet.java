@@ -22,9 +22,11 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Properties;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.digitalmediaserver.crowdin.api.FileType;
+import org.digitalmediaserver.crowdin.tool.ConversionTable;
 
 
 /**
@@ -105,6 +107,12 @@ public abstract class AbstractFileSet {
 	@Nullable
 	protected List<Conversion> conversions;
 
+	/**
+	 * For internal use.
+	 */
+	@Nonnull
+	protected ConversionTable conversionTable = ConversionTable.EMPTY;
+
 	/**
 	 * For internal use.
 	 */
@@ -218,6 +226,14 @@ public abstract class AbstractFileSet {
 		return conversions;
 	}
 
+	/**
+	 * @return The compiled {@link #conversions}.
+	 */
+	@Nonnull
+	public ConversionTable getConversionTable() {
+		return conversionTable;
+	}
+
 	/**
 	 * Since the constructor is called automagically by Maven, verification and
 	 * initialization of defaults is done here.
@@ -252,5 +268,6 @@ public abstract class AbstractFileSet {
 				}
 			}
 		}
+		conversionTable = ConversionTable.compile(conversions);
 	}
 }
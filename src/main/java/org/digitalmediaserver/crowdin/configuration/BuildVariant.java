@@ -0,0 +1,163 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.configuration;
+
+import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.MojoExecutionException;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+
+/**
+ * A {@link org.apache.maven.plugin.Mojo} configuration class describing a
+ * build variant, a set of build options that translations are built, fetched
+ * and deployed with.
+ *
+ * @author Nadahar
+ */
+@SuppressFBWarnings("UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD")
+public class BuildVariant {
+
+	/**
+	 * <b>Required</b>. The name of the variant, which is also the name of its
+	 * subfolder in the download folder.
+	 */
+	protected String name;
+
+	/**
+	 * Whether to only include translated strings. If not configured, the
+	 * global {@code skipUntranslatedStrings} value is used.
+	 */
+	protected Boolean skipUntranslatedStrings;
+
+	/**
+	 * Whether to only include translated files. If not configured, the global
+	 * {@code skipUntranslatedFiles} value is used.
+	 */
+	protected Boolean skipUntranslatedFiles;
+
+	/**
+	 * Whether to only include approved translations. If not configured, the
+	 * global {@code exportApprovedOnly} value is used.
+	 */
+	protected Boolean exportApprovedOnly;
+
+	/**
+	 * The folder to deploy this variant to, mirroring the layout of the
+	 * project folder. If not configured, this variant is deployed to the
+	 * configured locations.
+	 */
+	protected File deployFolder;
+
+	/**
+	 * @return The name of the variant.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Whether to only include translated strings or {@code null} to
+	 *         use the global value.
+	 */
+	@Nullable
+	public Boolean getSkipUntranslatedStrings() {
+		return skipUntranslatedStrings;
+	}
+
+	/**
+	 * @return Whether to only include translated files or {@code null} to use
+	 *         the global value.
+	 */
+	@Nullable
+	public Boolean getSkipUntranslatedFiles() {
+		return skipUntranslatedFiles;
+	}
+
+	/**
+	 * @return Whether to only include approved translations or {@code null}
+	 *         to use the global value.
+	 */
+	@Nullable
+	public Boolean getExportApprovedOnly() {
+		return exportApprovedOnly;
+	}
+
+	/**
+	 * @return The folder to deploy this variant to or {@code null} to deploy
+	 *         to the configured locations.
+	 */
+	@Nullable
+	public File getDeployFolder() {
+		return deployFolder;
+	}
+
+	/**
+	 * Verifies the specified {@link BuildVariant}s. The names must be unique
+	 * and usable as folder names, and no more than one variant can be
+	 * deployed to the configured locations.
+	 *
+	 * @param buildVariants the {@link BuildVariant}s to verify.
+	 * @throws MojoExecutionException If the verification fails.
+	 */
+	public static void initialize(@Nullable List<BuildVariant> buildVariants) throws MojoExecutionException {
+		if (buildVariants == null || buildVariants.isEmpty()) {
+			return;
+		}
+		Set<String> names = new HashSet<>();
+		BuildVariant inPlace = null;
+		for (BuildVariant variant : buildVariants) {
+			if (isBlank(variant.name)) {
+				throw new MojoExecutionException("\"name\" must be specified for build variants");
+			}
+			variant.name = variant.name.trim();
+			if (
+				variant.name.startsWith(".") ||
+				variant.name.indexOf('/') >= 0 ||
+				variant.name.indexOf('\\') >= 0
+			) {
+				throw new MojoExecutionException("Invalid build variant name \"" + variant.name + "\"");
+			}
+			if (!names.add(variant.name)) {
+				throw new MojoExecutionException("Duplicate build variant name \"" + variant.name + "\"");
+			}
+			if (variant.deployFolder == null) {
+				if (inPlace != null) {
+					throw new MojoExecutionException(
+						"Build variants \"" + inPlace.name + "\" and \"" + variant.name +
+						"\" can't both be deployed to the configured locations, specify \"deployFolder\""
+					);
+				}
+				inPlace = variant;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [name=" + name + ", skipUntranslatedStrings=" + skipUntranslatedStrings +
+			", skipUntranslatedFiles=" + skipUntranslatedFiles + ", exportApprovedOnly=" + exportApprovedOnly +
+			", deployFolder=" + deployFolder + "]";
+	}
+}
@@ -40,6 +40,13 @@ public class Conversion {
 	 */
 	protected String to;
 
+	/**
+	 * Whether {@link #from} is a regular expression that must match the
+	 * complete placeholder value. If so, {@link #to} can refer to its capture
+	 * groups using {@code $n}.
+	 */
+	protected Boolean regex;
+
 	/**
 	 * @return The placeholder value to convert from.
 	 */
@@ -47,6 +54,14 @@ public class Conversion {
 		return from;
 	}
 
+	/**
+	 * @return {@code true} if {@link #getFrom()} is a regular expression,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isRegex() {
+		return Boolean.TRUE.equals(regex);
+	}
+
 	/**
 	 * @return The placeholder value to convert to.
 	 */
@@ -56,6 +71,6 @@ public class Conversion {
 
 	@Override
 	public String toString() {
-		return getClass().getSimpleName() + ": \"" + from + "\" -> \"" + to + "\"";
+		return getClass().getSimpleName() + (isRegex() ? " (regex)" : "") + ": \"" + from + "\" -> \"" + to + "\"";
 	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.configuration;
+
+
+/**
+ * An {@code enum} representing how translation files that don't need to be
+ * transformed are deployed from the download folder.
+ *
+ * @author Nadahar
+ */
+public enum DeployMode {
+
+	/** Copy the file, leaving the downloaded file in place */
+	copy,
+
+	/**
+	 * Create a hard link to the downloaded file, or copy it if hard links
+	 * aren't supported
+	 */
+	link,
+
+	/**
+	 * Move the downloaded file, atomically if possible. The download folder
+	 * is consumed by the deployment
+	 */
+	move;
+}
@@ -205,17 +205,17 @@ public class TranslationFileSet extends AbstractFileSet {
 	protected Boolean replaceModifiedContext = Boolean.FALSE;
 
 	/**
-	 * Paths to include using a basic filter where {@code ?} and {@code *} are
-	 * wildcards and the rest are literals. If one or more includes are
-	 * configured the file set becomes a white-list where anything not included
-	 * is excluded.
+	 * Paths to include using a basic filter where {@code ?}, {@code *} and
+	 * {@code **} are wildcards and the rest are literals. If one or more
+	 * includes are configured the file set becomes a white-list where
+	 * anything not included is excluded.
 	 */
 	@Nullable
 	protected List<String> includes;
 
 	/**
-	 * Paths to exclude using a basic filter where {@code ?} and {@code *} are
-	 * wildcards and the rest are literals.
+	 * Paths to exclude using a basic filter where {@code ?}, {@code *} and
+	 * {@code **} are wildcards and the rest are literals.
 	 */
 	@Nullable
 	protected List<String> excludes;
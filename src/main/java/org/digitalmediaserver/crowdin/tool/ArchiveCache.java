@@ -0,0 +1,403 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.logging.Log;
+
+
+/**
+ * This class represents a host level cache of translation archives, keyed by
+ * Crowdin project ID and build ID. Each archive is stored together with a
+ * SHA-256 checksum that is verified before the archive is used.
+ * <p>
+ * Access to an entry is coordinated both within the JVM and between JVMs
+ * using file locks, so that concurrent builds on the same host download each
+ * archive only once. When the total size exceeds the configured limit, the
+ * least recently used archives are evicted. Lock files only exist while the
+ * entry is in use or has a cached archive.
+ *
+ * @author Nadahar
+ */
+public class ArchiveCache {
+
+	/** The checksum algorithm */
+	public static final String DIGEST_ALGORITHM = "SHA-256";
+
+	/** The archive file extension */
+	protected static final String ARCHIVE_EXTENSION = ".zip";
+
+	/** The checksum file extension */
+	protected static final String CHECKSUM_EXTENSION = ".sha256";
+
+	/** The lock file extension */
+	protected static final String LOCK_EXTENSION = ".lock";
+
+	/** The in-JVM locks by lock file, since file locks are held per JVM */
+	private static final ConcurrentMap<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+	@Nonnull
+	private final Path folder;
+
+	private final long maxSize;
+
+	@Nullable
+	private final Log logger;
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param folder the cache folder.
+	 * @param maxSize the maximum total size of the cached archives in bytes.
+	 * @param logger the {@link Log} to log to.
+	 */
+	public ArchiveCache(@Nonnull Path folder, long maxSize, @Nullable Log logger) {
+		this.folder = folder.toAbsolutePath().normalize();
+		this.maxSize = maxSize;
+		this.logger = logger;
+	}
+
+	/**
+	 * @return The cache folder.
+	 */
+	@Nonnull
+	public Path getFolder() {
+		return folder;
+	}
+
+	/**
+	 * Opens and locks the cache entry for the specified build. The returned
+	 * {@link Entry} must be closed to release the lock.
+	 *
+	 * @param projectId the Crowdin project ID.
+	 * @param buildId the Crowdin build ID.
+	 * @return The locked {@link Entry}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	@Nonnull
+	public Entry open(long projectId, long buildId) throws IOException {
+		Files.createDirectories(folder);
+		Entry result = lock(projectId + "-" + buildId, true);
+		if (result == null) {
+			throw new AssertionError("Blocking lock returned null");
+		}
+		return result;
+	}
+
+	/**
+	 * Locks the cache entry with the specified key, both within the JVM and
+	 * using a file lock. If the lock file is removed by somebody else while
+	 * waiting for the lock, the attempt is repeated with a new lock file.
+	 *
+	 * @param key the cache key.
+	 * @param wait {@code true} to wait for the lock, {@code false} to give up
+	 *            if the entry is locked by somebody else.
+	 * @return The locked {@link Entry} or {@code null} if {@code wait} is
+	 *         {@code false} and the entry is locked.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	@Nullable
+	protected Entry lock(@Nonnull String key, boolean wait) throws IOException {
+		Path lockFile = folder.resolve(key + LOCK_EXTENSION);
+		while (true) {
+			ReentrantLock lock = getLock(lockFile);
+			if (wait) {
+				lock.lock();
+			} else if (!lock.tryLock()) {
+				return null;
+			}
+			if (LOCKS.get(lockFile) != lock) {
+				// Removed while waiting
+				lock.unlock();
+				continue;
+			}
+			FileChannel channel = null;
+			try {
+				channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				FileLock fileLock = wait ? channel.lock() : channel.tryLock();
+				if (fileLock != null) {
+					if (channel.size() == 0L) {
+						return new Entry(key, lockFile, lock, channel, fileLock);
+					}
+					// The lock file was removed while waiting
+					fileLock.release();
+				}
+				channel.close();
+				lock.unlock();
+				if (fileLock == null) {
+					return null;
+				}
+			} catch (IOException | RuntimeException e) {
+				if (channel != null) {
+					channel.close();
+				}
+				lock.unlock();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Evicts the least recently used archives until the total size is within
+	 * the limit. Archives that are locked by others are left alone.
+	 *
+	 * @param keep the key of an entry that shouldn't be evicted or
+	 *            {@code null}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected void evict(@Nullable String keep) throws IOException {
+		final List<Path> archives = new ArrayList<>();
+		final List<BasicFileAttributes> attributes = new ArrayList<>();
+		long total = 0L;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*" + ARCHIVE_EXTENSION)) {
+			for (Path path : stream) {
+				BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+				if (attrs.isRegularFile()) {
+					archives.add(path);
+					attributes.add(attrs);
+					total += attrs.size();
+				}
+			}
+		}
+		if (total <= maxSize) {
+			return;
+		}
+
+		List<Integer> order = new ArrayList<>(archives.size());
+		for (int i = 0; i < archives.size(); i++) {
+			order.add(Integer.valueOf(i));
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return attributes.get(o1.intValue()).lastModifiedTime().compareTo(
+					attributes.get(o2.intValue()).lastModifiedTime()
+				);
+			}
+		});
+		for (Integer index : order) {
+			if (total <= maxSize) {
+				break;
+			}
+			Path archive = archives.get(index.intValue());
+			String fileName = archive.getFileName().toString();
+			String key = fileName.substring(0, fileName.length() - ARCHIVE_EXTENSION.length());
+			if (key.equals(keep)) {
+				continue;
+			}
+			try (Entry entry = lock(key, false)) {
+				if (entry == null) {
+					continue;
+				}
+				if (logger != null && logger.isDebugEnabled()) {
+					logger.debug("Evicting \"" + archive + "\" from the archive cache");
+				}
+				Files.deleteIfExists(archive);
+				Files.deleteIfExists(folder.resolve(key + CHECKSUM_EXTENSION));
+				total -= attributes.get(index.intValue()).size();
+			}
+		}
+	}
+
+	/**
+	 * Returns the in-JVM lock for the specified lock file, creating it if
+	 * needed. This is required because a {@link FileLock} is held on behalf of
+	 * the whole JVM, so it doesn't protect against other threads.
+	 *
+	 * @param lockFile the lock file.
+	 * @return The {@link ReentrantLock}.
+	 */
+	@Nonnull
+	protected static ReentrantLock getLock(@Nonnull Path lockFile) {
+		ReentrantLock result = LOCKS.get(lockFile);
+		if (result == null) {
+			ReentrantLock newLock = new ReentrantLock();
+			result = LOCKS.putIfAbsent(lockFile, newLock);
+			if (result == null) {
+				result = newLock;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This class represents a locked cache entry.
+	 *
+	 * @author Nadahar
+	 */
+	public class Entry implements Closeable {
+
+		@Nonnull
+		private final String key;
+
+		@Nonnull
+		private final Path lockFile;
+
+		@Nonnull
+		private final ReentrantLock lock;
+
+		@Nonnull
+		private final FileChannel channel;
+
+		@Nonnull
+		private final FileLock fileLock;
+
+		private boolean closed;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param key the cache key.
+		 * @param lockFile the lock file.
+		 * @param lock the acquired in-JVM lock.
+		 * @param channel the lock file {@link FileChannel}.
+		 * @param fileLock the acquired {@link FileLock}.
+		 */
+		protected Entry(
+			@Nonnull String key,
+			@Nonnull Path lockFile,
+			@Nonnull ReentrantLock lock,
+			@Nonnull FileChannel channel,
+			@Nonnull FileLock fileLock
+		) {
+			this.key = key;
+			this.lockFile = lockFile;
+			this.lock = lock;
+			this.channel = channel;
+			this.fileLock = fileLock;
+		}
+
+		/**
+		 * Retrieves the cached archive to the specified file if it exists and
+		 * its checksum is valid. An invalid archive is deleted.
+		 *
+		 * @param target the file to write to.
+		 * @return {@code true} if the archive was retrieved, {@code false} if
+		 *         it isn't in the cache.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public boolean retrieve(@Nonnull Path target) throws IOException {
+			Path archive = folder.resolve(key + ARCHIVE_EXTENSION);
+			Path checksumFile = folder.resolve(key + CHECKSUM_EXTENSION);
+			if (!Files.isRegularFile(archive) || !Files.isRegularFile(checksumFile)) {
+				return false;
+			}
+			String checksum = new String(Files.readAllBytes(checksumFile), StandardCharsets.US_ASCII).trim();
+			if (!checksum.equals(FileUtil.getDigest(archive, DIGEST_ALGORITHM))) {
+				if (logger != null) {
+					logger.warn("Discarding corrupt cached archive \"" + archive + "\"");
+				}
+				Files.deleteIfExists(archive);
+				Files.deleteIfExists(checksumFile);
+				return false;
+			}
+			Files.deleteIfExists(target);
+			FileUtil.linkOrCopy(archive, target);
+			// Mark as recently used
+			Files.setLastModifiedTime(archive, FileTime.fromMillis(System.currentTimeMillis()));
+			return true;
+		}
+
+		/**
+		 * Stores the specified archive in the cache and evicts old archives if
+		 * the size limit is exceeded.
+		 *
+		 * @param source the archive to store.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public void store(@Nonnull Path source) throws IOException {
+			if (Files.size(source) > maxSize) {
+				return;
+			}
+			Path archive = folder.resolve(key + ARCHIVE_EXTENSION);
+			Path checksumFile = folder.resolve(key + CHECKSUM_EXTENSION);
+			Path tempFile = folder.resolve(key + ARCHIVE_EXTENSION + ".tmp");
+			Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			String checksum = FileUtil.getDigest(tempFile, DIGEST_ALGORITHM);
+			Files.move(tempFile, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.write(checksumFile, checksum.getBytes(StandardCharsets.US_ASCII));
+			evict(key);
+		}
+
+		/**
+		 * Releases the locks. If the entry has no cached archive, for example
+		 * because the download failed or the archive was evicted, the lock
+		 * file and the in-JVM lock are removed. The lock file is marked as
+		 * removed before it's released, so that those waiting for it will
+		 * start over with a new lock file.
+		 *
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				if (!Files.isRegularFile(folder.resolve(key + ARCHIVE_EXTENSION)) && remove()) {
+					LOCKS.remove(lockFile, lock);
+				}
+			} finally {
+				try {
+					fileLock.release();
+					channel.close();
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+
+		private boolean remove() throws IOException {
+			try {
+				Files.deleteIfExists(lockFile);
+			} catch (IOException e) {
+				// Some file systems don't allow deleting open files
+				if (logger != null && logger.isDebugEnabled()) {
+					logger.debug("Couldn't remove lock file \"" + lockFile + "\": " + e.getMessage());
+				}
+				return false;
+			}
+			channel.write(ByteBuffer.wrap(new byte[] {1}));
+			return true;
+		}
+	}
+}
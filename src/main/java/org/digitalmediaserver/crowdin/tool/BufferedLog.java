@@ -0,0 +1,221 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.maven.plugin.logging.Log;
+
+
+/**
+ * A {@link Log} that stores the messages instead of logging them, so that
+ * the output of tasks that run concurrently can be logged in a predictable
+ * order afterwards using {@link #replay}. Whether a level is enabled is
+ * decided by the target {@link Log}.
+ *
+ * @author Nadahar
+ */
+@ThreadSafe
+public class BufferedLog implements Log {
+
+	@Nonnull
+	private final Log target;
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	/**
+	 * Creates a new instance that will be replayed to the specified
+	 * {@link Log}.
+	 *
+	 * @param target the {@link Log} that decides which levels are enabled.
+	 */
+	public BufferedLog(@Nonnull Log target) {
+		this.target = target;
+	}
+
+	/**
+	 * Logs the stored messages to the specified {@link Log} and clears them.
+	 *
+	 * @param logger the {@link Log} to log to.
+	 */
+	public void replay(@Nonnull Log logger) {
+		List<Entry> replayEntries;
+		synchronized (entries) {
+			replayEntries = new ArrayList<>(entries);
+			entries.clear();
+		}
+		for (Entry entry : replayEntries) {
+			entry.log(logger);
+		}
+	}
+
+	private void add(@Nonnull Level level, @Nullable CharSequence content, @Nullable Throwable error) {
+		synchronized (entries) {
+			entries.add(new Entry(level, content, error));
+		}
+	}
+
+	@Override
+	public boolean isDebugEnabled() {
+		return target.isDebugEnabled();
+	}
+
+	@Override
+	public void debug(CharSequence content) {
+		add(Level.DEBUG, content, null);
+	}
+
+	@Override
+	public void debug(CharSequence content, Throwable error) {
+		add(Level.DEBUG, content, error);
+	}
+
+	@Override
+	public void debug(Throwable error) {
+		add(Level.DEBUG, null, error);
+	}
+
+	@Override
+	public boolean isInfoEnabled() {
+		return target.isInfoEnabled();
+	}
+
+	@Override
+	public void info(CharSequence content) {
+		add(Level.INFO, content, null);
+	}
+
+	@Override
+	public void info(CharSequence content, Throwable error) {
+		add(Level.INFO, content, error);
+	}
+
+	@Override
+	public void info(Throwable error) {
+		add(Level.INFO, null, error);
+	}
+
+	@Override
+	public boolean isWarnEnabled() {
+		return target.isWarnEnabled();
+	}
+
+	@Override
+	public void warn(CharSequence content) {
+		add(Level.WARN, content, null);
+	}
+
+	@Override
+	public void warn(CharSequence content, Throwable error) {
+		add(Level.WARN, content, error);
+	}
+
+	@Override
+	public void warn(Throwable error) {
+		add(Level.WARN, null, error);
+	}
+
+	@Override
+	public boolean isErrorEnabled() {
+		return target.isErrorEnabled();
+	}
+
+	@Override
+	public void error(CharSequence content) {
+		add(Level.ERROR, content, null);
+	}
+
+	@Override
+	public void error(CharSequence content, Throwable error) {
+		add(Level.ERROR, content, error);
+	}
+
+	@Override
+	public void error(Throwable error) {
+		add(Level.ERROR, null, error);
+	}
+
+	private enum Level {
+		DEBUG, INFO, WARN, ERROR
+	}
+
+	private static class Entry {
+
+		@Nonnull
+		private final Level level;
+
+		@Nullable
+		private final CharSequence content;
+
+		@Nullable
+		private final Throwable error;
+
+		public Entry(@Nonnull Level level, @Nullable CharSequence content, @Nullable Throwable error) {
+			this.level = level;
+			this.content = content;
+			this.error = error;
+		}
+
+		public void log(@Nonnull Log logger) {
+			switch (level) {
+				case DEBUG:
+					if (error == null) {
+						logger.debug(content);
+					} else if (content == null) {
+						logger.debug(error);
+					} else {
+						logger.debug(content, error);
+					}
+					break;
+				case INFO:
+					if (error == null) {
+						logger.info(content);
+					} else if (content == null) {
+						logger.info(error);
+					} else {
+						logger.info(content, error);
+					}
+					break;
+				case WARN:
+					if (error == null) {
+						logger.warn(content);
+					} else if (content == null) {
+						logger.warn(error);
+					} else {
+						logger.warn(content, error);
+					}
+					break;
+				case ERROR:
+					if (error == null) {
+						logger.error(content);
+					} else if (content == null) {
+						logger.error(error);
+					} else {
+						logger.error(content, error);
+					}
+					break;
+				default:
+					throw new AssertionError("Unimplemented level " + level);
+			}
+		}
+	}
+}
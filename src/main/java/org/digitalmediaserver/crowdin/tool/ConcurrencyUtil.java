@@ -0,0 +1,188 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.MojoExecutionException;
+
+
+/**
+ * This is a utility class for running tasks concurrently.
+ *
+ * @author Nadahar
+ */
+public class ConcurrencyUtil {
+
+	/**
+	 * Not to be instantiated.
+	 */
+	private ConcurrencyUtil() {
+	}
+
+	/**
+	 * Creates a new fixed size thread pool using daemon threads, so that a
+	 * pool that isn't shut down won't prevent the JVM from exiting.
+	 *
+	 * @param name the name prefix to use for the threads.
+	 * @param threads the number of threads. Values less than {@code 1} are
+	 *            treated as {@code 1}.
+	 * @return The new {@link ExecutorService}.
+	 */
+	@Nonnull
+	public static ExecutorService createThreadPool(@Nonnull String name, int threads) {
+		return Executors.newFixedThreadPool(Math.max(1, threads), new DaemonThreadFactory(name));
+	}
+
+	/**
+	 * Executes the specified tasks using the specified {@link ExecutorService}
+	 * and waits for all of them to complete. If one of the tasks fail, all the
+	 * remaining tasks are cancelled and the failure is thrown immediately.
+	 *
+	 * @param <T> the result type.
+	 * @param executor the {@link ExecutorService} to use.
+	 * @param tasks the {@link Callable}s to execute.
+	 * @param errorMessage the message to use if a task fails with something
+	 *            other than a {@link MojoExecutionException}.
+	 * @return The {@link List} of results in the same order as {@code tasks}.
+	 * @throws MojoExecutionException If any of the tasks fail or the current
+	 *             thread is interrupted.
+	 */
+	@Nonnull
+	public static <T> List<T> invokeAll(
+		@Nonnull ExecutorService executor,
+		@Nonnull List<? extends Callable<T>> tasks,
+		@Nonnull String errorMessage
+	) throws MojoExecutionException {
+		if (tasks.isEmpty()) {
+			return Collections.emptyList();
+		}
+		CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+		Map<Future<T>, Integer> futures = new HashMap<>(tasks.size() * 4 / 3 + 1);
+		List<T> result = new ArrayList<>(Collections.<T>nCopies(tasks.size(), null));
+		boolean completed = false;
+		try {
+			for (int i = 0; i < tasks.size(); i++) {
+				futures.put(completionService.submit(tasks.get(i)), Integer.valueOf(i));
+			}
+			for (int i = 0; i < tasks.size(); i++) {
+				Future<T> future;
+				try {
+					future = completionService.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new MojoExecutionException(errorMessage + ": Interrupted", e);
+				}
+				result.set(futures.get(future).intValue(), getResult(future, errorMessage));
+			}
+			completed = true;
+		} finally {
+			if (!completed) {
+				for (Future<T> future : futures.keySet()) {
+					future.cancel(true);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for the specified {@link Future} to complete and returns its
+	 * result. Any failure is unwrapped and thrown as a
+	 * {@link MojoExecutionException}, unless it's an unchecked exception.
+	 *
+	 * @param <T> the result type.
+	 * @param future the {@link Future} to wait for.
+	 * @param errorMessage the message to use if the task failed with something
+	 *            other than a {@link MojoExecutionException}.
+	 * @return The result.
+	 * @throws MojoExecutionException If the task failed, was cancelled or the
+	 *             current thread is interrupted.
+	 */
+	@Nullable
+	public static <T> T getResult(@Nonnull Future<T> future, @Nonnull String errorMessage) throws MojoExecutionException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MojoExecutionException(errorMessage + ": Interrupted", e);
+		} catch (CancellationException e) {
+			throw new MojoExecutionException(errorMessage + ": Cancelled", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof MojoExecutionException) {
+				throw (MojoExecutionException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			if (cause == null) {
+				throw new MojoExecutionException(errorMessage + ": " + e.getMessage(), e);
+			}
+			throw new MojoExecutionException(errorMessage + ": " + cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * A {@link ThreadFactory} that creates named daemon threads.
+	 *
+	 * @author Nadahar
+	 */
+	public static class DaemonThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Nonnull
+		private final String name;
+
+		/**
+		 * Creates a new instance using the specified name prefix.
+		 *
+		 * @param name the name prefix to use for the threads.
+		 */
+		public DaemonThreadFactory(@Nonnull String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
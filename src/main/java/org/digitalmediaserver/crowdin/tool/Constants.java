@@ -43,9 +43,51 @@ public class Constants {
 	/** The path filter delimiters to use when building a regular expression */
 	public static final Pattern FILTER_DELIMITERS = Pattern.compile("\\?|\\*|\\\\");
 
+	/** The glob delimiters to use when building a regular expression */
+	public static final Pattern GLOB_DELIMITERS = Pattern.compile("\\*\\*/|\\*\\*|\\?|\\*");
+
+	/**
+	 * The name of the hidden folder in the download folder where the plugin
+	 * keeps its state
+	 */
+	public static final String STATE_FOLDER = ".crowdin";
+
+	/** The name of the download manifest in {@link #STATE_FOLDER} */
+	public static final String DOWNLOAD_MANIFEST_FILENAME = "download-manifest.json";
+
+	/**
+	 * The base name of the deploy manifest in the project build folder,
+	 * without extension
+	 */
+	public static final String DEPLOY_MANIFEST_BASENAME = "crowdin-deploy-manifest";
+
+	/** The name of the translation progress snapshot in {@link #STATE_FOLDER} */
+	public static final String PROGRESS_SNAPSHOT_FILENAME = "progress-snapshot.json";
+
+	/** The name of the remote stamp in {@link #STATE_FOLDER} */
+	public static final String REMOTE_STAMP_FILENAME = "remote-stamp.json";
+
+	/** The name of the file recording the last fetched branch in {@link #STATE_FOLDER} */
+	public static final String LAST_BRANCH_FILENAME = "last-branch";
+
+	/** The suffix of the sibling folder that downloads are staged in */
+	public static final String STAGING_FOLDER_SUFFIX = ".crowdin-staging";
+
+	/** The suffix of sibling folders holding replaced downloads pending deletion */
+	public static final String TRASH_FOLDER_SUFFIX = ".crowdin-trash";
+
 	/** The Crowdin API URL */
 	public static final String API_URL = "https://api.crowdin.com/api/v2/";
 
+	/** The Crowdin GraphQL API URL */
+	public static final String GRAPHQL_URL = "https://api.crowdin.com/api/graphql";
+
+	/** The maximum number of concurrent HTTP connections per route */
+	public static final int HTTP_MAX_CONNECTIONS_PER_ROUTE = 16;
+
+	/** The maximum total number of concurrent HTTP connections */
+	public static final int HTTP_MAX_CONNECTIONS_TOTAL = 32;
+
 	/** The system property to use for NTLM domain */
 	public static final String HTTP_AUTH_NTLM_DOMAIN = "http.auth.ntlm.domain";
 
@@ -0,0 +1,208 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.digitalmediaserver.crowdin.configuration.Conversion;
+
+
+/**
+ * This class holds a compiled {@link List} of {@link Conversion}s. Exact
+ * conversions are looked up in a {@link Map}, and take precedence over
+ * regular expression conversions, which are combined into a single
+ * {@link Pattern} where the first matching conversion in the configured order
+ * wins. The result for each distinct value is cached.
+ *
+ * @author Nadahar
+ */
+@ThreadSafe
+public class ConversionTable {
+
+	/** An empty {@link ConversionTable} that returns all values unchanged */
+	public static final ConversionTable EMPTY = new ConversionTable(
+		Collections.<String, String>emptyMap(),
+		null,
+		Collections.<Rule>emptyList()
+	);
+
+	/** A {@link Pattern} for finding back references in regular expressions */
+	protected static final Pattern BACK_REFERENCE = Pattern.compile("(?<!\\\\)(?:\\\\\\\\)*\\\\(?:[1-9]|k<)");
+
+	@Nonnull
+	private final Map<String, String> exact;
+
+	@Nullable
+	private final Pattern combined;
+
+	@Nonnull
+	private final List<Rule> rules;
+
+	@Nonnull
+	private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+	private ConversionTable(
+		@Nonnull Map<String, String> exact,
+		@Nullable Pattern combined,
+		@Nonnull List<Rule> rules
+	) {
+		this.exact = exact;
+		this.combined = combined;
+		this.rules = rules;
+	}
+
+	/**
+	 * @return {@code true} if this {@link ConversionTable} has no
+	 *         conversions, {@code false} otherwise.
+	 */
+	public boolean isEmpty() {
+		return exact.isEmpty() && rules.isEmpty();
+	}
+
+	/**
+	 * Converts the specified value.
+	 *
+	 * @param value the value to convert.
+	 * @return The converted value or {@code value} if no conversion matches.
+	 */
+	@Nonnull
+	public String convert(@Nonnull String value) {
+		if (isEmpty()) {
+			return value;
+		}
+		String result = cache.get(value);
+		if (result == null) {
+			result = lookup(value);
+			cache.put(value, result);
+		}
+		return result;
+	}
+
+	@Nonnull
+	private String lookup(@Nonnull String value) {
+		String result = exact.get(value);
+		if (result != null || combined == null) {
+			return result == null ? value : result;
+		}
+		Matcher matcher = combined.matcher(value);
+		if (!matcher.matches()) {
+			return value;
+		}
+		for (Rule rule : rules) {
+			if (matcher.start(rule.group) >= 0) {
+				Matcher ruleMatcher = rule.pattern.matcher(value);
+				if (!ruleMatcher.matches()) {
+					return value;
+				}
+				StringBuffer sb = new StringBuffer();
+				ruleMatcher.appendReplacement(sb, rule.replacement);
+				return sb.toString();
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Compiles the specified {@link Conversion}s.
+	 *
+	 * @param conversions the {@link Conversion}s to compile.
+	 * @return The new {@link ConversionTable}.
+	 * @throws MojoExecutionException If a regular expression is invalid.
+	 */
+	@Nonnull
+	public static ConversionTable compile(@Nullable List<Conversion> conversions) throws MojoExecutionException {
+		if (conversions == null || conversions.isEmpty()) {
+			return EMPTY;
+		}
+		Map<String, String> exact = new HashMap<>();
+		List<Rule> rules = new ArrayList<>();
+		StringBuilder sb = new StringBuilder();
+		int group = 1;
+		for (Conversion conversion : conversions) {
+			if (!conversion.isRegex()) {
+				if (!exact.containsKey(conversion.getFrom())) {
+					exact.put(conversion.getFrom(), conversion.getTo());
+				}
+				continue;
+			}
+			if (BACK_REFERENCE.matcher(conversion.getFrom()).find()) {
+				throw new MojoExecutionException(
+					"Back references aren't supported in regex conversion \"" + conversion.getFrom() + "\""
+				);
+			}
+			Pattern pattern;
+			try {
+				pattern = Pattern.compile(conversion.getFrom());
+			} catch (PatternSyntaxException e) {
+				throw new MojoExecutionException(
+					"Invalid regex conversion \"" + conversion.getFrom() + "\": " + e.getMessage(),
+					e
+				);
+			}
+			if (sb.length() > 0) {
+				sb.append('|');
+			}
+			sb.append('(').append(conversion.getFrom()).append(')');
+			rules.add(new Rule(pattern, conversion.getTo(), group));
+			group += pattern.matcher("").groupCount() + 1;
+		}
+		return new ConversionTable(
+			exact,
+			rules.isEmpty() ? null : Pattern.compile(sb.toString()),
+			Collections.unmodifiableList(rules)
+		);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [exact=" + exact + ", combined=" + combined + "]";
+	}
+
+	/**
+	 * A compiled regular expression {@link Conversion}.
+	 */
+	private static class Rule {
+
+		@Nonnull
+		private final Pattern pattern;
+
+		@Nonnull
+		private final String replacement;
+
+		/** The index of the group wrapping this rule in the combined pattern */
+		private final int group;
+
+		public Rule(@Nonnull Pattern pattern, @Nonnull String replacement, int group) {
+			this.pattern = pattern;
+			this.replacement = replacement;
+			this.group = group;
+		}
+	}
+}
@@ -0,0 +1,403 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.apache.maven.plugin.logging.Log;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * This class represents the manifest of the deployed translation files,
+ * recording for each target file the digest of the source it was deployed
+ * from, the digest of the options it was transformed with, and the size,
+ * modification time and digest of the result. It is used to skip the
+ * transformation of files whose inputs haven't changed, and to remove
+ * deployed files whose source has disappeared.
+ * <p>
+ * This class isn't thread-safe for modification, but can safely be read
+ * concurrently.
+ *
+ * @author Nadahar
+ */
+public class DeployManifest {
+
+	/** The {@link java.security.MessageDigest} algorithm used for the digests */
+	public static final String DIGEST_ALGORITHM = "SHA-256";
+
+	/** The current manifest format version */
+	public static final int VERSION = 1;
+
+	private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+	/** The manifest format version */
+	private int version = VERSION;
+
+	/**
+	 * The target records by target path relative to the project folder using
+	 * {@code /} as separator
+	 */
+	private final TreeMap<String, TargetRecord> targets = new TreeMap<>();
+
+	/**
+	 * Creates a new empty instance.
+	 */
+	public DeployManifest() {
+	}
+
+	/**
+	 * Returns the {@link TargetRecord} for the specified target path.
+	 *
+	 * @param path the target path relative to the project folder using
+	 *            {@code /} as separator.
+	 * @return The {@link TargetRecord} or {@code null}.
+	 */
+	@Nullable
+	public TargetRecord get(@Nullable String path) {
+		return targets.get(path);
+	}
+
+	/**
+	 * Stores the {@link TargetRecord} for the specified target path.
+	 *
+	 * @param path the target path relative to the project folder using
+	 *            {@code /} as separator.
+	 * @param record the {@link TargetRecord} to store.
+	 */
+	public void put(@Nonnull String path, @Nonnull TargetRecord record) {
+		targets.put(path, record);
+	}
+
+	/**
+	 * Checks whether the specified target path is recorded in this manifest.
+	 *
+	 * @param path the target path relative to the project folder using
+	 *            {@code /} as separator.
+	 * @return {@code true} if {@code path} is recorded, {@code false}
+	 *         otherwise.
+	 */
+	public boolean contains(@Nullable String path) {
+		return targets.containsKey(path);
+	}
+
+	/**
+	 * @return An unmodifiable sorted {@link Map} of the recorded target paths
+	 *         and {@link TargetRecord}s.
+	 */
+	@Nonnull
+	public Map<String, TargetRecord> getTargets() {
+		return Collections.unmodifiableMap(targets);
+	}
+
+	/**
+	 * @return The number of recorded targets.
+	 */
+	public int size() {
+		return targets.size();
+	}
+
+	/**
+	 * Loads a {@link DeployManifest} from the specified file. If the file
+	 * doesn't exist or can't be parsed, an empty {@link DeployManifest} is
+	 * returned.
+	 *
+	 * @param file the manifest file.
+	 * @param logger the {@link Log} to log to.
+	 * @return The loaded or new {@link DeployManifest}.
+	 */
+	@Nonnull
+	public static DeployManifest load(@Nonnull Path file, @Nullable Log logger) {
+		if (!Files.isRegularFile(file)) {
+			return new DeployManifest();
+		}
+		DeployManifest result;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			result = GSON.fromJson(reader, DeployManifest.class);
+		} catch (IOException | JsonParseException e) {
+			if (logger != null) {
+				logger.warn("Ignoring invalid deploy manifest \"" + file + "\": " + e.getMessage());
+			}
+			return new DeployManifest();
+		}
+		if (result == null || result.version != VERSION) {
+			if (logger != null && logger.isDebugEnabled()) {
+				logger.debug("Ignoring deploy manifest \"" + file + "\" with unknown version");
+			}
+			return new DeployManifest();
+		}
+		return result;
+	}
+
+	/**
+	 * Stores this {@link DeployManifest} to the specified file. The file is
+	 * first written to a temporary file which is then moved into place.
+	 *
+	 * @param file the manifest file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public void save(@Nonnull Path file) throws IOException {
+		Path folder = file.toAbsolutePath().getParent();
+		if (folder != null) {
+			Files.createDirectories(folder);
+		}
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+			GSON.toJson(this, writer);
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(targets, Integer.valueOf(version));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DeployManifest)) {
+			return false;
+		}
+		DeployManifest other = (DeployManifest) obj;
+		return Objects.equals(targets, other.targets) && version == other.version;
+	}
+
+	/**
+	 * This class holds the information recorded for a single target file.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class TargetRecord {
+
+		/** The description of the source the target was deployed from */
+		private final String source;
+
+		/** The lower-case hexadecimal digest of the source content */
+		private final String sourceDigest;
+
+		/** The lower-case hexadecimal digest of the transformation options */
+		private final String optionsDigest;
+
+		/** The target file size in bytes */
+		private final long size;
+
+		/** The target last modification time in milliseconds since the epoch */
+		private final long lastModified;
+
+		/** The lower-case hexadecimal digest of the target content */
+		private final String digest;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param source the description of the source the target was
+		 *            deployed from.
+		 * @param sourceDigest the lower-case hexadecimal
+		 *            {@link DeployManifest#DIGEST_ALGORITHM} digest of the
+		 *            source content.
+		 * @param optionsDigest the lower-case hexadecimal
+		 *            {@link DeployManifest#DIGEST_ALGORITHM} digest of the
+		 *            transformation options.
+		 * @param size the target file size in bytes.
+		 * @param lastModified the target last modification time in
+		 *            milliseconds since the epoch.
+		 * @param digest the lower-case hexadecimal
+		 *            {@link DeployManifest#DIGEST_ALGORITHM} digest of the
+		 *            target content.
+		 */
+		public TargetRecord(
+			@Nonnull String source,
+			@Nonnull String sourceDigest,
+			@Nonnull String optionsDigest,
+			long size,
+			long lastModified,
+			@Nonnull String digest
+		) {
+			this.source = source;
+			this.sourceDigest = sourceDigest;
+			this.optionsDigest = optionsDigest;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.digest = digest;
+		}
+
+		/**
+		 * Creates a new instance for the specified target file, calculating
+		 * its digest.
+		 *
+		 * @param source the description of the source the target was
+		 *            deployed from.
+		 * @param sourceDigest the lower-case hexadecimal
+		 *            {@link DeployManifest#DIGEST_ALGORITHM} digest of the
+		 *            source content.
+		 * @param optionsDigest the lower-case hexadecimal
+		 *            {@link DeployManifest#DIGEST_ALGORITHM} digest of the
+		 *            transformation options.
+		 * @param file the target file.
+		 * @return The new {@link TargetRecord}.
+		 * @throws IOException If an error occurs while reading the file.
+		 */
+		@Nonnull
+		public static TargetRecord create(
+			@Nonnull String source,
+			@Nonnull String sourceDigest,
+			@Nonnull String optionsDigest,
+			@Nonnull Path file
+		) throws IOException {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			return new TargetRecord(
+				source,
+				sourceDigest,
+				optionsDigest,
+				attributes.size(),
+				attributes.lastModifiedTime().toMillis(),
+				FileUtil.getDigest(file, DIGEST_ALGORITHM)
+			);
+		}
+
+		/**
+		 * @return The description of the source the target was deployed from.
+		 */
+		public String getSource() {
+			return source;
+		}
+
+		/**
+		 * @return The lower-case hexadecimal digest of the source content.
+		 */
+		public String getSourceDigest() {
+			return sourceDigest;
+		}
+
+		/**
+		 * @return The lower-case hexadecimal digest of the transformation
+		 *         options.
+		 */
+		public String getOptionsDigest() {
+			return optionsDigest;
+		}
+
+		/**
+		 * @return The target file size in bytes.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return The target last modification time in milliseconds since the
+		 *         epoch.
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return The lower-case hexadecimal digest of the target content.
+		 */
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * Evaluates whether the specified file still has the recorded
+		 * content. If the file's size and modification time matches the
+		 * record, the recorded digest is trusted. If not, the digest of the
+		 * file is calculated.
+		 *
+		 * @param file the target file.
+		 * @return {@code true} if the file exists with the recorded content,
+		 *         {@code false} otherwise.
+		 * @throws IOException If an error occurs while reading the file.
+		 */
+		public boolean isUnchanged(@Nonnull Path file) throws IOException {
+			BasicFileAttributes attributes;
+			try {
+				attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			} catch (NoSuchFileException e) {
+				return false;
+			}
+			if (!attributes.isRegularFile() || attributes.size() != size) {
+				return false;
+			}
+			if (attributes.lastModifiedTime().toMillis() == lastModified) {
+				return true;
+			}
+			return Objects.equals(digest, FileUtil.getDigest(file, DIGEST_ALGORITHM));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(
+				digest,
+				Long.valueOf(lastModified),
+				optionsDigest,
+				Long.valueOf(size),
+				source,
+				sourceDigest
+			);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TargetRecord)) {
+				return false;
+			}
+			TargetRecord other = (TargetRecord) obj;
+			return
+				Objects.equals(digest, other.digest) &&
+				lastModified == other.lastModified &&
+				Objects.equals(optionsDigest, other.optionsDigest) &&
+				size == other.size &&
+				Objects.equals(source, other.source) &&
+				Objects.equals(sourceDigest, other.sourceDigest);
+		}
+
+		@Override
+		public String toString() {
+			return
+				getClass().getSimpleName() + " [source=" + source + ", sourceDigest=" + sourceDigest +
+				", optionsDigest=" + optionsDigest + ", size=" + size + ", lastModified=" + lastModified +
+				", digest=" + digest + "]";
+		}
+	}
+}
@@ -0,0 +1,331 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.apache.maven.plugin.logging.Log;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * This class represents the manifest of the files in the download folder,
+ * recording the size, modification time and digest of each file. It is used
+ * to avoid rewriting files whose content hasn't changed.
+ * <p>
+ * This class isn't thread-safe for modification, but can safely be read
+ * concurrently.
+ *
+ * @author Nadahar
+ */
+public class DownloadManifest {
+
+	/** The {@link java.security.MessageDigest} algorithm used for the digests */
+	public static final String DIGEST_ALGORITHM = "SHA-256";
+
+	/** The current manifest format version */
+	public static final int VERSION = 1;
+
+	private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+	/** The manifest format version */
+	private int version = VERSION;
+
+	/** The file records by relative path using {@code /} as separator */
+	private final TreeMap<String, FileRecord> files = new TreeMap<>();
+
+	/**
+	 * Creates a new empty instance.
+	 */
+	public DownloadManifest() {
+	}
+
+	/**
+	 * Returns the {@link FileRecord} for the specified relative path.
+	 *
+	 * @param path the relative path using {@code /} as separator.
+	 * @return The {@link FileRecord} or {@code null}.
+	 */
+	@Nullable
+	public FileRecord get(@Nullable String path) {
+		return files.get(path);
+	}
+
+	/**
+	 * Stores the {@link FileRecord} for the specified relative path.
+	 *
+	 * @param path the relative path using {@code /} as separator.
+	 * @param record the {@link FileRecord} to store.
+	 */
+	public void put(@Nonnull String path, @Nonnull FileRecord record) {
+		files.put(path, record);
+	}
+
+	/**
+	 * Removes the {@link FileRecord} for the specified relative path.
+	 *
+	 * @param path the relative path using {@code /} as separator.
+	 * @return The removed {@link FileRecord} or {@code null}.
+	 */
+	@Nullable
+	public FileRecord remove(@Nullable String path) {
+		return files.remove(path);
+	}
+
+	/**
+	 * Checks whether the specified relative path is recorded in this manifest.
+	 *
+	 * @param path the relative path using {@code /} as separator.
+	 * @return {@code true} if {@code path} is recorded, {@code false}
+	 *         otherwise.
+	 */
+	public boolean contains(@Nullable String path) {
+		return files.containsKey(path);
+	}
+
+	/**
+	 * @return An unmodifiable sorted {@link Set} of the recorded relative
+	 *         paths.
+	 */
+	@Nonnull
+	public Set<String> getPaths() {
+		return Collections.unmodifiableSet(files.keySet());
+	}
+
+	/**
+	 * @return An unmodifiable sorted {@link Map} of the recorded relative
+	 *         paths and {@link FileRecord}s.
+	 */
+	@Nonnull
+	public Map<String, FileRecord> getFiles() {
+		return Collections.unmodifiableMap(files);
+	}
+
+	/**
+	 * @return The number of recorded files.
+	 */
+	public int size() {
+		return files.size();
+	}
+
+	/**
+	 * Evaluates whether the specified file already has the specified content.
+	 * If the file's size and modification time matches what's recorded in this
+	 * manifest, the recorded digest is trusted. If not, the digest of the file
+	 * is calculated.
+	 *
+	 * @param path the relative path using {@code /} as separator.
+	 * @param file the file.
+	 * @param size the size of the new content.
+	 * @param digest the {@link #DIGEST_ALGORITHM} digest of the new content.
+	 * @return {@code true} if the file exists with the same content,
+	 *         {@code false} otherwise.
+	 * @throws IOException If an error occurs while reading the file.
+	 */
+	public boolean isUnchanged(
+		@Nonnull String path,
+		@Nonnull Path file,
+		long size,
+		@Nonnull String digest
+	) throws IOException {
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		if (!attributes.isRegularFile() || attributes.size() != size) {
+			return false;
+		}
+		FileRecord record = files.get(path);
+		if (
+			record != null &&
+			record.getSize() == size &&
+			record.getLastModified() == attributes.lastModifiedTime().toMillis()
+		) {
+			return digest.equals(record.getDigest());
+		}
+		return digest.equals(FileUtil.getDigest(file, DIGEST_ALGORITHM));
+	}
+
+	/**
+	 * Loads a {@link DownloadManifest} from the specified file. If the file
+	 * doesn't exist or can't be parsed, an empty {@link DownloadManifest} is
+	 * returned.
+	 *
+	 * @param file the manifest file.
+	 * @param logger the {@link Log} to log to.
+	 * @return The loaded or new {@link DownloadManifest}.
+	 */
+	@Nonnull
+	public static DownloadManifest load(@Nonnull Path file, @Nullable Log logger) {
+		if (!Files.isRegularFile(file)) {
+			return new DownloadManifest();
+		}
+		DownloadManifest result;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			result = GSON.fromJson(reader, DownloadManifest.class);
+		} catch (IOException | JsonParseException e) {
+			if (logger != null) {
+				logger.warn("Ignoring invalid download manifest \"" + file + "\": " + e.getMessage());
+			}
+			return new DownloadManifest();
+		}
+		if (result == null || result.version != VERSION) {
+			if (logger != null && logger.isDebugEnabled()) {
+				logger.debug("Ignoring download manifest \"" + file + "\" with unknown version");
+			}
+			return new DownloadManifest();
+		}
+		return result;
+	}
+
+	/**
+	 * Stores this {@link DownloadManifest} to the specified file. The file is
+	 * first written to a temporary file which is then moved into place.
+	 *
+	 * @param file the manifest file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public void save(@Nonnull Path file) throws IOException {
+		Path folder = file.toAbsolutePath().getParent();
+		if (folder != null) {
+			Files.createDirectories(folder);
+		}
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+			GSON.toJson(this, writer);
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(files, Integer.valueOf(version));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DownloadManifest)) {
+			return false;
+		}
+		DownloadManifest other = (DownloadManifest) obj;
+		return Objects.equals(files, other.files) && version == other.version;
+	}
+
+	/**
+	 * This class holds the information recorded for a single file.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class FileRecord {
+
+		/** The file size in bytes */
+		private final long size;
+
+		/** The last modification time in milliseconds since the epoch */
+		private final long lastModified;
+
+		/** The lower-case hexadecimal {@link DownloadManifest#DIGEST_ALGORITHM} digest */
+		private final String digest;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param size the file size in bytes.
+		 * @param lastModified the last modification time in milliseconds since
+		 *            the epoch.
+		 * @param digest the lower-case hexadecimal
+		 *            {@link DownloadManifest#DIGEST_ALGORITHM} digest.
+		 */
+		public FileRecord(long size, long lastModified, @Nonnull String digest) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.digest = digest;
+		}
+
+		/**
+		 * @return The file size in bytes.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return The last modification time in milliseconds since the epoch.
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return The lower-case hexadecimal
+		 *         {@link DownloadManifest#DIGEST_ALGORITHM} digest.
+		 */
+		public String getDigest() {
+			return digest;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(digest, Long.valueOf(lastModified), Long.valueOf(size));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof FileRecord)) {
+				return false;
+			}
+			FileRecord other = (FileRecord) obj;
+			return
+				Objects.equals(digest, other.digest) &&
+				lastModified == other.lastModified &&
+				size == other.size;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + " [size=" + size + ", lastModified=" + lastModified + ", digest=" + digest + "]";
+		}
+	}
+}
@@ -0,0 +1,467 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+
+/**
+ * This is a utility class for downloading files over HTTP. If the server
+ * supports {@code Range} requests, the file is downloaded in parallel
+ * segments that resume where they left off if interrupted.
+ *
+ * @author Nadahar
+ */
+public class DownloadUtil {
+
+	/** The smallest segment size in bytes worth its own connection */
+	public static final long MIN_SEGMENT_SIZE = 1024L * 1024L;
+
+	/** The time in milliseconds to wait before the first retry */
+	protected static final long RETRY_DELAY = 1000L;
+
+	/** The {@code Content-Range} response header {@link Pattern} */
+	protected static final Pattern CONTENT_RANGE = Pattern.compile(
+		"^\\s*bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)\\s*$",
+		Pattern.CASE_INSENSITIVE
+	);
+
+	/** The {@link Pattern} for an {@code ETag} that is a plain MD5 digest */
+	protected static final Pattern MD5_ETAG = Pattern.compile("^\"?([0-9a-fA-F]{32})\"?$");
+
+	/**
+	 * Not to be instantiated.
+	 */
+	private DownloadUtil() {
+	}
+
+	/**
+	 * Downloads the content of the specified {@link URI} to the specified file.
+	 * If the server advertises {@code Range} support, up to {@code segments}
+	 * parallel requests are used and interrupted segments are resumed. If not,
+	 * a single request is used. The result is verified by size, and by MD5
+	 * digest if the {@code ETag} is a plain MD5 digest.
+	 *
+	 * @param httpClient the {@link CloseableHttpClient} to use.
+	 * @param uri the {@link URI} to download.
+	 * @param targetFile the file to write to. Any existing file is overwritten.
+	 * @param segments the maximum number of parallel segments.
+	 * @param retries the number of times to retry or resume a failed transfer.
+	 * @param logger the {@link Log} to log to.
+	 * @return The number of bytes downloaded.
+	 * @throws MojoExecutionException If an error occurs during the operation.
+	 */
+	public static long download(
+		@Nonnull CloseableHttpClient httpClient,
+		@Nonnull URI uri,
+		@Nonnull Path targetFile,
+		int segments,
+		int retries,
+		@Nullable Log logger
+	) throws MojoExecutionException {
+		int attempt = 0;
+		while (true) {
+			try {
+				return doDownload(httpClient, uri, targetFile, segments, retries, logger);
+			} catch (IOException e) {
+				if (
+					e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException) ||
+					++attempt > retries
+				) {
+					throw new MojoExecutionException("Failed to download \"" + uri + "\": " + e.getMessage(), e);
+				}
+				if (logger != null) {
+					logger.warn(
+						"Download of \"" + uri + "\" failed, retrying (" + attempt + "/" + retries + "): " + e.getMessage()
+					);
+				}
+				try {
+					sleepBeforeRetry(attempt);
+				} catch (InterruptedIOException ie) {
+					throw new MojoExecutionException("Interrupted while downloading \"" + uri + "\"", ie);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Probes the server for {@code Range} support and performs a segmented or
+	 * single-stream download accordingly.
+	 *
+	 * @param httpClient the {@link CloseableHttpClient} to use.
+	 * @param uri the {@link URI} to download.
+	 * @param targetFile the file to write to.
+	 * @param segments the maximum number of parallel segments.
+	 * @param retries the number of times to resume a failed segment.
+	 * @param logger the {@link Log} to log to.
+	 * @return The number of bytes downloaded.
+	 * @throws IOException If an error occurs during the operation that might
+	 *             succeed if retried.
+	 * @throws MojoExecutionException If a segment fails permanently.
+	 */
+	protected static long doDownload(
+		@Nonnull CloseableHttpClient httpClient,
+		@Nonnull URI uri,
+		@Nonnull Path targetFile,
+		int segments,
+		int retries,
+		@Nullable Log logger
+	) throws IOException, MojoExecutionException {
+		HttpGet probe = new HttpGet(uri);
+		probe.addHeader(HttpHeaders.RANGE, "bytes=0-0");
+		if (logger != null && logger.isDebugEnabled()) {
+			logger.debug("Probing \"" + uri + "\" for range support");
+		}
+		long size = -1L;
+		String eTag;
+		try (CloseableHttpResponse response = httpClient.execute(probe)) {
+			int statusCode = getStatusCode(response, uri);
+			eTag = getHeaderValue(response, HttpHeaders.ETAG);
+			if (statusCode == HttpStatus.SC_OK) {
+				// No range support, the whole content is in this response
+				if (logger != null) {
+					logger.info("Server doesn't support ranged requests, downloading using a single connection");
+				}
+				return transferResponse(response, uri, targetFile, eTag, logger);
+			}
+			if (statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
+				throw new IOException("Request \"" + uri + "\" returned unexpected status " + statusCode);
+			}
+			String contentRange = getHeaderValue(response, HttpHeaders.CONTENT_RANGE);
+			Matcher matcher = contentRange == null ? null : CONTENT_RANGE.matcher(contentRange);
+			if (matcher != null && matcher.find() && !"*".equals(matcher.group(3))) {
+				size = Long.parseLong(matcher.group(3));
+			}
+			consume(response.getEntity());
+		}
+
+		if (size < 0L) {
+			if (logger != null) {
+				logger.info("Server didn't report the content size, downloading using a single connection");
+			}
+			try (CloseableHttpResponse response = httpClient.execute(new HttpGet(uri))) {
+				int statusCode = getStatusCode(response, uri);
+				if (statusCode != HttpStatus.SC_OK) {
+					throw new IOException("Request \"" + uri + "\" returned unexpected status " + statusCode);
+				}
+				return transferResponse(response, uri, targetFile, getHeaderValue(response, HttpHeaders.ETAG), logger);
+			}
+		}
+
+		int segmentCount = (int) Math.max(1L, Math.min(Math.max(1, segments), size / MIN_SEGMENT_SIZE));
+		long segmentSize = size / segmentCount;
+		if (logger != null) {
+			if (segmentCount > 1) {
+				logger.info("Downloading " + size + " bytes using " + segmentCount + " parallel connections");
+			} else {
+				logger.info("Downloading " + size + " bytes");
+			}
+		}
+
+		try (RandomAccessFile file = new RandomAccessFile(targetFile.toFile(), "rw")) {
+			file.setLength(size);
+		}
+		try (FileChannel channel = FileChannel.open(targetFile, StandardOpenOption.WRITE)) {
+			List<SegmentTask> tasks = new ArrayList<>(segmentCount);
+			for (int i = 0; i < segmentCount; i++) {
+				tasks.add(new SegmentTask(
+					httpClient,
+					uri,
+					channel,
+					i,
+					i * segmentSize,
+					i == segmentCount - 1 ? size - 1 : (i + 1) * segmentSize - 1,
+					eTag,
+					retries,
+					logger
+				));
+			}
+			if (segmentCount == 1) {
+				try {
+					tasks.get(0).call();
+				} catch (IOException | HttpException e) {
+					throw new MojoExecutionException("Failed to download \"" + uri + "\": " + e.getMessage(), e);
+				}
+			} else {
+				ExecutorService executor = ConcurrencyUtil.createThreadPool("crowdin-download", segmentCount);
+				try {
+					ConcurrencyUtil.invokeAll(executor, tasks, "Failed to download \"" + uri + "\"");
+				} finally {
+					executor.shutdownNow();
+				}
+			}
+			channel.force(false);
+		}
+		verify(targetFile, size, eTag, logger);
+		return size;
+	}
+
+	/**
+	 * Writes the complete content of the specified response to the specified
+	 * file and verifies the result.
+	 *
+	 * @param response the {@link CloseableHttpResponse} to read from.
+	 * @param uri the {@link URI} used for logging.
+	 * @param targetFile the file to write to.
+	 * @param eTag the {@code ETag} returned by the server, if any.
+	 * @param logger the {@link Log} to log to.
+	 * @return The number of bytes written.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected static long transferResponse(
+		@Nonnull CloseableHttpResponse response,
+		@Nonnull URI uri,
+		@Nonnull Path targetFile,
+		@Nullable String eTag,
+		@Nullable Log logger
+	) throws IOException {
+		HttpEntity entity = response.getEntity();
+		if (entity == null) {
+			throw new IOException("Request \"" + uri + "\" returned no content");
+		}
+		try (InputStream is = entity.getContent()) {
+			Files.copy(is, targetFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		verify(targetFile, entity.getContentLength(), eTag, logger);
+		return Files.size(targetFile);
+	}
+
+	/**
+	 * Verifies the downloaded file by comparing its size with the expected
+	 * size, and its MD5 digest with the {@code ETag} if it is a plain MD5
+	 * digest.
+	 *
+	 * @param file the downloaded file.
+	 * @param expectedSize the expected size or a negative value if unknown.
+	 * @param eTag the {@code ETag} returned by the server, if any.
+	 * @param logger the {@link Log} to log to.
+	 * @throws IOException If the verification fails.
+	 */
+	protected static void verify(
+		@Nonnull Path file,
+		long expectedSize,
+		@Nullable String eTag,
+		@Nullable Log logger
+	) throws IOException {
+		long size = Files.size(file);
+		if (expectedSize >= 0L && size != expectedSize) {
+			throw new IOException(
+				"Downloaded file size (" + size + ") differs from the expected size (" + expectedSize + ")"
+			);
+		}
+		Matcher matcher = eTag == null ? null : MD5_ETAG.matcher(eTag);
+		if (matcher == null || !matcher.find()) {
+			if (logger != null && logger.isDebugEnabled()) {
+				logger.debug("No MD5 digest available, download of \"" + file + "\" verified by size only");
+			}
+			return;
+		}
+		String digest = FileUtil.getDigest(file, "MD5");
+		if (!digest.equals(matcher.group(1).toLowerCase(Locale.ROOT))) {
+			throw new IOException(
+				"Downloaded file MD5 digest (" + digest + ") differs from the expected digest (" + matcher.group(1) + ")"
+			);
+		}
+		if (logger != null && logger.isDebugEnabled()) {
+			logger.debug("Download of \"" + file + "\" verified by size and MD5 digest");
+		}
+	}
+
+	private static int getStatusCode(@Nonnull CloseableHttpResponse response, @Nonnull URI uri) throws IOException {
+		StatusLine statusLine = response.getStatusLine();
+		if (statusLine == null) {
+			throw new IOException("Request \"" + uri + "\" returned no status");
+		}
+		return statusLine.getStatusCode();
+	}
+
+	@Nullable
+	private static String getHeaderValue(@Nonnull CloseableHttpResponse response, @Nonnull String name) {
+		Header header = response.getFirstHeader(name);
+		return header == null ? null : header.getValue();
+	}
+
+	private static void consume(@Nullable HttpEntity entity) throws IOException {
+		if (entity != null && entity.isStreaming()) {
+			try (InputStream is = entity.getContent()) {
+				byte[] buffer = new byte[256];
+				while (is.read(buffer) != -1) {
+					// Discard
+				}
+			}
+		}
+	}
+
+	private static void sleepBeforeRetry(int attempt) throws InterruptedIOException {
+		try {
+			Thread.sleep(RETRY_DELAY << Math.min(attempt - 1, 5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry");
+		}
+	}
+
+	/**
+	 * A {@link Callable} that downloads one segment of a file using a
+	 * {@code Range} request, resuming from the last written byte if the
+	 * transfer is interrupted.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class SegmentTask implements Callable<Long> {
+
+		private final CloseableHttpClient httpClient;
+		private final URI uri;
+		private final FileChannel channel;
+		private final int index;
+		private final long start;
+		private final long end;
+		private final String eTag;
+		private final int retries;
+		private final Log logger;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param httpClient the {@link CloseableHttpClient} to use.
+		 * @param uri the {@link URI} to download.
+		 * @param channel the {@link FileChannel} to write to.
+		 * @param index the segment index, used for logging.
+		 * @param start the first byte of the segment.
+		 * @param end the last byte (inclusive) of the segment.
+		 * @param eTag the {@code ETag} used to make sure that the content
+		 *            doesn't change between requests.
+		 * @param retries the number of times to resume the segment.
+		 * @param logger the {@link Log} to log to.
+		 */
+		public SegmentTask(
+			@Nonnull CloseableHttpClient httpClient,
+			@Nonnull URI uri,
+			@Nonnull FileChannel channel,
+			int index,
+			long start,
+			long end,
+			@Nullable String eTag,
+			int retries,
+			@Nullable Log logger
+		) {
+			this.httpClient = httpClient;
+			this.uri = uri;
+			this.channel = channel;
+			this.index = index;
+			this.start = start;
+			this.end = end;
+			this.eTag = eTag;
+			this.retries = retries;
+			this.logger = logger;
+		}
+
+		@Override
+		public Long call() throws IOException, HttpException {
+			long position = start;
+			int attempt = 0;
+			byte[] buffer = new byte[FileUtil.BUFFER_SIZE];
+			while (true) {
+				HttpGet request = new HttpGet(uri);
+				request.addHeader(HttpHeaders.RANGE, "bytes=" + position + "-" + end);
+				if (eTag != null && !eTag.startsWith("W/")) {
+					// Weak validators aren't allowed in If-Range
+					request.addHeader(HttpHeaders.IF_RANGE, eTag);
+				}
+				if (logger != null && logger.isDebugEnabled()) {
+					logger.debug("Requesting segment " + index + " bytes " + position + "-" + end);
+				}
+				try (CloseableHttpResponse response = httpClient.execute(request)) {
+					int statusCode = getStatusCode(response, uri);
+					if (statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
+						// Not retryable, the content has changed or the server misbehaves
+						throw new HttpException(
+							"Segment " + index + " request returned unexpected status " + statusCode
+						);
+					}
+					HttpEntity entity = response.getEntity();
+					if (entity == null) {
+						throw new IOException("Segment " + index + " response contained no content");
+					}
+					try (InputStream is = entity.getContent()) {
+						int read;
+						while (
+							position <= end &&
+							(read = is.read(buffer, 0, (int) Math.min(buffer.length, end - position + 1))) != -1
+						) {
+							ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+							while (byteBuffer.hasRemaining()) {
+								position += channel.write(byteBuffer, position);
+							}
+						}
+					}
+					if (position > end) {
+						return Long.valueOf(end - start + 1);
+					}
+					throw new IOException("Premature end of segment " + index + " at byte " + position);
+				} catch (IOException e) {
+					if (
+						e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException) ||
+						++attempt > retries
+					) {
+						throw e;
+					}
+					if (logger != null) {
+						logger.warn(
+							"Segment " + index + " was interrupted at byte " + position + ", resuming (" +
+							attempt + "/" + retries + "): " + e.getMessage()
+						);
+					}
+					sleepBeforeRetry(attempt);
+				}
+			}
+		}
+	}
+}
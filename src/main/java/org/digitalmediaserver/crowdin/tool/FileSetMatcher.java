@@ -0,0 +1,505 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import static org.digitalmediaserver.crowdin.tool.Constants.PLACEHOLDER_PATTERN;
+import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
+import static org.digitalmediaserver.crowdin.tool.StringUtil.isNotBlank;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.digitalmediaserver.crowdin.configuration.PathPlaceholder;
+import org.digitalmediaserver.crowdin.configuration.TranslationFileSet;
+
+
+/**
+ * This class holds the compiled export patterns of a list of
+ * {@link TranslationFileSet}s, and matches translation file paths against
+ * them. The patterns are compiled once, so that the same instance can be
+ * used both to filter the translations archive when fetching and to resolve
+ * the target files when deploying.
+ * <p>
+ * The literal prefixes of the patterns, that is the push folder and the part
+ * of the export pattern before the first placeholder, are stored in a trie.
+ * A file name is only matched against the patterns whose literal prefix it
+ * starts with, which are found in a single pass over the file name. If more
+ * than one pattern matches, the {@link TranslationFileSet} that is
+ * configured first takes precedence.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Nadahar
+ */
+@Immutable
+public class FileSetMatcher {
+
+	@Nonnull
+	private final List<MatchInfo> matchInfos;
+
+	@Nonnull
+	private final PrefixNode prefixes;
+
+	private FileSetMatcher(@Nonnull List<MatchInfo> matchInfos, @Nonnull PrefixNode prefixes) {
+		this.matchInfos = matchInfos;
+		this.prefixes = prefixes;
+	}
+
+	/**
+	 * @return The unmodifiable {@link List} of {@link MatchInfo}s in the order
+	 *         of precedence.
+	 */
+	@Nonnull
+	public List<MatchInfo> getMatchInfos() {
+		return matchInfos;
+	}
+
+	/**
+	 * Matches the specified file name against the export patterns.
+	 *
+	 * @param fileName the path of the file relative to its language folder,
+	 *            using {@code /} as separator.
+	 * @return The resulting {@link Match} or {@code null} if no
+	 *         {@link TranslationFileSet} matches.
+	 */
+	@Nullable
+	public Match match(@Nonnull String fileName) {
+		BitSet candidates = new BitSet(matchInfos.size());
+		PrefixNode node = prefixes;
+		node.addTo(candidates);
+		for (int i = 0; i < fileName.length(); i++) {
+			node = node.children.get(Character.valueOf(fileName.charAt(i)));
+			if (node == null) {
+				break;
+			}
+			node.addTo(candidates);
+		}
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			MatchInfo matchInfo = matchInfos.get(i);
+			Matcher matcher = matchInfo.getPattern().matcher(fileName);
+			if (matcher.matches()) {
+				return new Match(matchInfo, matcher);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Evaluates whether the specified path, relative to the download folder or
+	 * archive root, is a translation file that belongs to one of the
+	 * {@link TranslationFileSet}s. The first path element is the language
+	 * folder, files that aren't inside a language folder are never accepted.
+	 *
+	 * @param relativePath the path relative to the download folder or archive
+	 *            root, using {@code /} as separator.
+	 * @return {@code true} if the file belongs to a {@link TranslationFileSet},
+	 *         {@code false} otherwise.
+	 */
+	public boolean accepts(@Nonnull String relativePath) {
+		int slash = relativePath.indexOf('/');
+		return slash >= 0 && match(relativePath.substring(slash + 1)) != null;
+	}
+
+	/**
+	 * Evaluates whether the specified folder, relative to the download folder
+	 * or archive root, can contain translation files that are deployed. A
+	 * folder can be skipped if, for every {@link TranslationFileSet}, either
+	 * the export pattern can't match inside it, none of the includes can
+	 * match inside it or one of the excludes matches everything inside it.
+	 *
+	 * @param folderPath the path of the folder relative to the download folder
+	 *            or archive root, using {@code /} as separator.
+	 * @return {@code false} if no translation files inside the folder can be
+	 *         deployed, {@code true} otherwise.
+	 */
+	public boolean acceptsFolder(@Nonnull String folderPath) {
+		List<String> folder = FileUtil.splitPath(folderPath, false);
+		if (folder.isEmpty()) {
+			return true;
+		}
+
+		// The first element is the language folder
+		StringBuilder sb = new StringBuilder();
+		for (int i = 1; i < folder.size(); i++) {
+			sb.append(folder.get(i)).append('/');
+		}
+		String languagePath = sb.toString();
+		for (MatchInfo matchInfo : matchInfos) {
+			if (matchInfo.acceptsFolder(folder, languagePath)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compiles the export patterns of the specified
+	 * {@link TranslationFileSet}s. File sets without an export pattern are
+	 * ignored. The order of {@code fileSets} decides the precedence.
+	 *
+	 * @param fileSets the {@link TranslationFileSet}s.
+	 * @param logger the {@link Log} to warn about ignored file sets or
+	 *            {@code null} to ignore them silently.
+	 * @return The new {@link FileSetMatcher}.
+	 * @throws MojoExecutionException If an export pattern contains an unknown
+	 *             placeholder.
+	 */
+	@Nonnull
+	public static FileSetMatcher compile(
+		@Nonnull List<TranslationFileSet> fileSets,
+		@Nullable Log logger
+	) throws MojoExecutionException {
+		List<MatchInfo> fileSetMatches = new ArrayList<>();
+		PrefixNode root = new PrefixNode();
+		for (TranslationFileSet fileSet : fileSets) {
+			if (isBlank(fileSet.getExportPattern())) {
+				if (logger != null) {
+					logger.warn(
+						"Can't deploy translation file set \"" + fileSet.getTitle() +
+						"\" because \"exportPattern\" is missing"
+					);
+				}
+				continue;
+			}
+			StringBuilder sb = new StringBuilder();
+			StringBuilder prefix = new StringBuilder();
+			String pushFolder = FileUtil.getPushFolder(fileSet, true);
+			if (isNotBlank(pushFolder)) {
+				sb.append(Pattern.quote(pushFolder));
+				prefix.append(pushFolder);
+			}
+			String remaining = fileSet.getExportPattern();
+			List<PathPlaceholder> matchPlaceHolders = new ArrayList<>();
+			while (remaining.length() > 0) {
+				Matcher matcher = PLACEHOLDER_PATTERN.matcher(remaining);
+				if (matcher.find()) {
+					if (matcher.start() > 0) {
+						sb.append(Pattern.quote(remaining.substring(0, matcher.start())));
+						if (matchPlaceHolders.isEmpty()) {
+							prefix.append(remaining, 0, matcher.start());
+						}
+					}
+					PathPlaceholder placeholder = PathPlaceholder.typeOf(matcher.group());
+					if (placeholder == null) {
+						throw new MojoExecutionException("Unknown placeholder \"" + matcher.group() + "\"");
+					}
+					sb.append(placeholder.getPattern());
+					matchPlaceHolders.add(placeholder);
+					remaining = remaining.substring(matcher.end());
+				} else {
+					sb.append(Pattern.quote(remaining));
+					if (matchPlaceHolders.isEmpty()) {
+						prefix.append(remaining);
+					}
+					remaining = "";
+				}
+			}
+			root.add(prefix, fileSetMatches.size());
+			fileSetMatches.add(new MatchInfo(
+				fileSet,
+				Pattern.compile(sb.toString()),
+				matchPlaceHolders,
+				prefix.toString(),
+				GlobFilter.compile(fileSet.getIncludes()),
+				GlobFilter.compile(fileSet.getExcludes()),
+				isBlank(fileSet.getTargetFileName()) ?
+					null :
+					PathTemplate.compile(fileSet.getTargetFileName(), matchPlaceHolders, fileSet.getExportPattern())
+			));
+		}
+		return new FileSetMatcher(Collections.unmodifiableList(fileSetMatches), root);
+	}
+
+	/**
+	 * A node in the trie of literal prefixes.
+	 */
+	private static class PrefixNode {
+
+		@Nonnull
+		private final Map<Character, PrefixNode> children = new HashMap<>();
+
+		/** The indices of the {@link MatchInfo}s whose prefix ends here */
+		@Nullable
+		private BitSet indices;
+
+		public void add(@Nonnull CharSequence prefix, int index) {
+			PrefixNode node = this;
+			for (int i = 0; i < prefix.length(); i++) {
+				Character c = Character.valueOf(prefix.charAt(i));
+				PrefixNode child = node.children.get(c);
+				if (child == null) {
+					child = new PrefixNode();
+					node.children.put(c, child);
+				}
+				node = child;
+			}
+			if (node.indices == null) {
+				node.indices = new BitSet();
+			}
+			node.indices.set(index);
+		}
+
+		public void addTo(@Nonnull BitSet candidates) {
+			if (indices != null) {
+				candidates.or(indices);
+			}
+		}
+	}
+
+	/**
+	 * A class holding the result of a successful match.
+	 *
+	 * @author Nadahar
+	 */
+	public static class Match {
+
+		@Nonnull
+		private final MatchInfo matchInfo;
+
+		@Nonnull
+		private final Matcher matcher;
+
+		/**
+		 * Create a new instance with the specified values.
+		 *
+		 * @param matchInfo the matching {@link MatchInfo}.
+		 * @param matcher the {@link Matcher} holding the placeholder groups.
+		 */
+		public Match(@Nonnull MatchInfo matchInfo, @Nonnull Matcher matcher) {
+			this.matchInfo = matchInfo;
+			this.matcher = matcher;
+		}
+
+		/**
+		 * @return The matching {@link MatchInfo}.
+		 */
+		@Nonnull
+		public MatchInfo getMatchInfo() {
+			return matchInfo;
+		}
+
+		/**
+		 * @return The {@link Matcher} holding the placeholder groups.
+		 */
+		@Nonnull
+		public Matcher getMatcher() {
+			return matcher;
+		}
+	}
+
+	/**
+	 * A class holding information for matching a file path to a
+	 * {@link TranslationFileSet}.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class MatchInfo {
+
+		@Nonnull
+		private final TranslationFileSet fileSet;
+
+		@Nonnull
+		private final Pattern pattern;
+
+		@Nonnull
+		private final List<PathPlaceholder> placeHolders;
+
+		@Nonnull
+		private final String prefix;
+
+		@Nonnull
+		private final List<GlobFilter> includes;
+
+		@Nonnull
+		private final List<GlobFilter> excludes;
+
+		@Nullable
+		private final PathTemplate targetFileTemplate;
+
+		/**
+		 * Create a new instance with the specified values.
+		 *
+		 * @param fileSet the {@link TranslationFileSet}.
+		 * @param pattern the matching {@link Pattern}.
+		 * @param placeHolders the {@link List} of {@link PathPlaceholder}s.
+		 * @param prefix the literal prefix of {@code pattern}.
+		 * @param includes the compiled includes of {@code fileSet}.
+		 * @param excludes the compiled excludes of {@code fileSet}.
+		 * @param targetFileTemplate the compiled target file name of
+		 *            {@code fileSet} or {@code null}.
+		 */
+		public MatchInfo(
+			@Nonnull TranslationFileSet fileSet,
+			@Nonnull Pattern pattern,
+			@Nonnull List<PathPlaceholder> placeHolders,
+			@Nonnull String prefix,
+			@Nonnull List<GlobFilter> includes,
+			@Nonnull List<GlobFilter> excludes,
+			@Nullable PathTemplate targetFileTemplate
+		) {
+			this.fileSet = fileSet;
+			this.pattern = pattern;
+			this.placeHolders = placeHolders;
+			this.prefix = prefix;
+			this.includes = includes;
+			this.excludes = excludes;
+			this.targetFileTemplate = targetFileTemplate;
+		}
+
+		/**
+		 * @return The {@link TranslationFileSet}.
+		 */
+		@Nonnull
+		public TranslationFileSet getFileSet() {
+			return fileSet;
+		}
+
+		/**
+		 * @return The match {@link Pattern}.
+		 */
+		@Nonnull
+		public Pattern getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * @return The ordered {@link List} of {@link PathPlaceholder}s.
+		 */
+		@Nonnull
+		public List<PathPlaceholder> getPlaceHolders() {
+			return placeHolders;
+		}
+
+		/**
+		 * @return The literal prefix of the match {@link Pattern}.
+		 */
+		@Nonnull
+		public String getPrefix() {
+			return prefix;
+		}
+
+		/**
+		 * @return The compiled {@link TranslationFileSet#getTargetFileName()}
+		 *         or {@code null} if it isn't set.
+		 */
+		@Nullable
+		public PathTemplate getTargetFileTemplate() {
+			return targetFileTemplate;
+		}
+
+		/**
+		 * Evaluates whether the specified translation file is included by
+		 * the {@link TranslationFileSet}. All files are included if no
+		 * includes are configured.
+		 *
+		 * @param relativePath the path of the file relative to the download
+		 *            folder or archive root, using {@code /} as separator.
+		 * @param fileName the file name.
+		 * @return {@code true} if the file is included, {@code false}
+		 *         otherwise.
+		 */
+		public boolean isIncluded(@Nonnull String relativePath, @Nonnull String fileName) {
+			if (includes.isEmpty()) {
+				return true;
+			}
+			for (GlobFilter include : includes) {
+				if (include.matches(relativePath, fileName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Evaluates whether the specified translation file is excluded by
+		 * the {@link TranslationFileSet}.
+		 *
+		 * @param relativePath the path of the file relative to the download
+		 *            folder or archive root, using {@code /} as separator.
+		 * @param fileName the file name.
+		 * @return {@code true} if the file is excluded, {@code false}
+		 *         otherwise.
+		 */
+		public boolean isExcluded(@Nonnull String relativePath, @Nonnull String fileName) {
+			for (GlobFilter exclude : excludes) {
+				if (exclude.matches(relativePath, fileName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Evaluates whether the specified folder can contain files that match
+		 * and are included by the {@link TranslationFileSet}.
+		 *
+		 * @param folder the elements of the folder path relative to the
+		 *            download folder or archive root.
+		 * @param languagePath the folder path relative to the language
+		 *            folder, ending with {@code /} unless empty.
+		 * @return {@code false} if no files inside the folder can be deployed
+		 *         by the {@link TranslationFileSet}, {@code true} otherwise.
+		 */
+		public boolean acceptsFolder(@Nonnull List<String> folder, @Nonnull String languagePath) {
+			if (!languagePath.startsWith(prefix) && !prefix.startsWith(languagePath)) {
+				return false;
+			}
+			if (!includes.isEmpty()) {
+				boolean found = false;
+				for (GlobFilter include : includes) {
+					if (include.canMatchBelow(folder)) {
+						found = true;
+						break;
+					}
+				}
+				if (!found) {
+					return false;
+				}
+			}
+			for (GlobFilter exclude : excludes) {
+				if (exclude.matchesAllBelow(folder)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("MatchInfo [fileSet=").append(fileSet)
+				.append(", pattern=\"").append(pattern)
+				.append("\", placeHolders=").append(placeHolders)
+				.append(", includes=").append(includes)
+				.append(", excludes=").append(excludes)
+				.append(", targetFileTemplate=").append(targetFileTemplate).append("]");
+			return builder.toString();
+		}
+	}
+}
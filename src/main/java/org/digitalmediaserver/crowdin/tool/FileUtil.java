@@ -20,7 +20,23 @@ package org.digitalmediaserver.crowdin.tool;
 
 import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
 import static org.digitalmediaserver.crowdin.tool.StringUtil.isNotBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +53,9 @@ import org.digitalmediaserver.crowdin.configuration.TranslationFileSet;
  */
 public class FileUtil {
 
+	/** The buffer size to use for file operations */
+	public static final int BUFFER_SIZE = 65536;
+
 	/**
 	 * Not to be instantiated.
 	 */
@@ -249,6 +268,235 @@ public class FileUtil {
 		return sb.toString();
 	}
 
+	/**
+	 * Calculates the digest of the content of the specified file.
+	 *
+	 * @param file the file whose content to digest.
+	 * @param algorithm the {@link MessageDigest} algorithm to use.
+	 * @return The lower-case hexadecimal representation of the digest.
+	 * @throws IOException If an error occurs while reading the file or if the
+	 *             algorithm isn't supported.
+	 */
+	@Nonnull
+	public static String getDigest(@Nonnull Path file, @Nonnull String algorithm) throws IOException {
+		MessageDigest digest = createMessageDigest(algorithm);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		}
+		return StringUtil.toHexString(digest.digest());
+	}
+
+	/**
+	 * Calculates the digest of the remaining content of the specified
+	 * {@link InputStream}. The stream isn't closed.
+	 *
+	 * @param inputStream the {@link InputStream} whose content to digest.
+	 * @param algorithm the {@link MessageDigest} algorithm to use.
+	 * @return The lower-case hexadecimal representation of the digest.
+	 * @throws IOException If an error occurs while reading the stream or if
+	 *             the algorithm isn't supported.
+	 */
+	@Nonnull
+	public static String getDigest(@Nonnull InputStream inputStream, @Nonnull String algorithm) throws IOException {
+		MessageDigest digest = createMessageDigest(algorithm);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = inputStream.read(buffer)) != -1) {
+			digest.update(buffer, 0, read);
+		}
+		return StringUtil.toHexString(digest.digest());
+	}
+
+	/**
+	 * Evaluates whether the specified file exists and has exactly the
+	 * specified content. The size is compared before the content is read.
+	 *
+	 * @param file the file to compare.
+	 * @param content the content to compare with.
+	 * @return {@code true} if the file has the specified content,
+	 *         {@code false} otherwise.
+	 * @throws IOException If an error occurs while reading the file.
+	 */
+	public static boolean hasContent(@Nonnull Path file, @Nonnull byte[] content) throws IOException {
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		if (!attributes.isRegularFile() || attributes.size() != content.length) {
+			return false;
+		}
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int offset = 0;
+		int read;
+		try (InputStream is = Files.newInputStream(file)) {
+			while ((read = is.read(buffer)) != -1) {
+				if (offset + read > content.length) {
+					return false;
+				}
+				for (int i = 0; i < read; i++) {
+					if (buffer[i] != content[offset + i]) {
+						return false;
+					}
+				}
+				offset += read;
+			}
+		}
+		return offset == content.length;
+	}
+
+	/**
+	 * Writes the specified content to the specified file, unless the file
+	 * already has exactly that content. The content is written to a temporary
+	 * file next to the file, which is then moved into place atomically if the
+	 * file system supports it, so that the file is never partially written.
+	 *
+	 * @param file the file to write.
+	 * @param content the content to write.
+	 * @return {@code true} if the file was written, {@code false} if it
+	 *         already had the specified content.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static boolean writeIfDifferent(@Nonnull Path file, @Nonnull byte[] content) throws IOException {
+		if (hasContent(file, content)) {
+			return false;
+		}
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		boolean moved = false;
+		try {
+			Files.write(tempFile, content);
+			moveReplacing(tempFile, file);
+			moved = true;
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(tempFile);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the specified target file with a hard link to the specified
+	 * source file. The link is created next to the target file and then moved
+	 * into place atomically if the file system supports it.
+	 *
+	 * @param source the existing file.
+	 * @param target the file to replace.
+	 * @return {@code true} if the link was created, {@code false} if hard
+	 *         links aren't supported between {@code source} and
+	 *         {@code target}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static boolean linkReplacing(@Nonnull Path source, @Nonnull Path target) throws IOException {
+		Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+		Files.deleteIfExists(tempFile);
+		try {
+			Files.createLink(tempFile, source);
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			return false;
+		}
+		boolean moved = false;
+		try {
+			moveReplacing(tempFile, target);
+			moved = true;
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(tempFile);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Moves the specified source file to the specified target, replacing it
+	 * if it exists. The move is atomic if the file system supports it,
+	 * otherwise it falls back to a regular move, which copies the file if the
+	 * target is on a different file system.
+	 *
+	 * @param source the file to move.
+	 * @param target the file to replace.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static void moveReplacing(@Nonnull Path source, @Nonnull Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Deletes the specified file or folder including all its content. Nothing
+	 * happens if {@code path} doesn't exist.
+	 *
+	 * @param path the file or folder to delete.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static void deleteRecursively(@Nonnull Path path) throws IOException {
+		if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+			return;
+		}
+		Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				if (exc != null) {
+					throw exc;
+				}
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Creates a hard link at {@code target} to {@code source}, or copies
+	 * {@code source} to {@code target} including its attributes if hard links
+	 * aren't supported. Either way, the modification time is preserved.
+	 *
+	 * @param source the existing file.
+	 * @param target the file to create.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static void linkOrCopy(@Nonnull Path source, @Nonnull Path target) throws IOException {
+		try {
+			Files.createLink(target, source);
+			return;
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			// Fall through to copy
+		}
+		Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Creates a new {@link MessageDigest} instance for the specified
+	 * algorithm.
+	 *
+	 * @param algorithm the {@link MessageDigest} algorithm to use.
+	 * @return The new {@link MessageDigest}.
+	 * @throws IOException If the algorithm isn't supported.
+	 */
+	@Nonnull
+	public static MessageDigest createMessageDigest(@Nonnull String algorithm) throws IOException {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("Unsupported digest algorithm \"" + algorithm + "\"", e);
+		}
+	}
+
 	/**
 	 * An {@code enum} representing letter cases.
 	 */
@@ -0,0 +1,227 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import static org.digitalmediaserver.crowdin.tool.Constants.GLOB_DELIMITERS;
+import static org.digitalmediaserver.crowdin.tool.StringUtil.isBlank;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * This class holds a compiled include or exclude filter for translation file
+ * paths, where {@code ?} matches any single character, {@code *} and
+ * {@code **} match any sequence of characters, including {@code /}, and
+ * {@code \} is treated as {@code /}. A {@code **} followed by {@code /} also
+ * matches no folders at all.
+ * <p>
+ * Besides matching paths, it can tell whether a folder can contain matching
+ * paths at all, based on the literal part of the filter before the first
+ * wildcard, so that folders can be skipped without looking inside them.
+ *
+ * @author Nadahar
+ */
+@Immutable
+public class GlobFilter {
+
+	@Nonnull
+	private final String glob;
+
+	@Nonnull
+	private final Pattern pattern;
+
+	/** The normalized filter up to the first wildcard */
+	@Nonnull
+	private final String literalPrefix;
+
+	/** Whether the filter contains a {@code /} */
+	private final boolean hasSlash;
+
+	/** Whether the filter is {@link #literalPrefix} followed only by {@code *} */
+	private final boolean anyTail;
+
+	private GlobFilter(
+		@Nonnull String glob,
+		@Nonnull Pattern pattern,
+		@Nonnull String literalPrefix,
+		boolean hasSlash,
+		boolean anyTail
+	) {
+		this.glob = glob;
+		this.pattern = pattern;
+		this.literalPrefix = literalPrefix;
+		this.hasSlash = hasSlash;
+		this.anyTail = anyTail;
+	}
+
+	/**
+	 * Evaluates whether the specified path or file name matches this filter.
+	 *
+	 * @param relativePath the path to match, using {@code /} as separator.
+	 * @param fileName the file name to match.
+	 * @return {@code true} if either {@code relativePath} or {@code fileName}
+	 *         matches, {@code false} otherwise.
+	 */
+	public boolean matches(@Nonnull String relativePath, @Nonnull String fileName) {
+		return
+			pattern.matcher(relativePath).matches() ||
+			(!hasSlash && pattern.matcher(fileName).matches());
+	}
+
+	/**
+	 * Evaluates whether the specified folder can contain a path that matches
+	 * this filter. Filters without a {@code /} can match the file name alone,
+	 * and can thus match in any folder.
+	 *
+	 * @param folder the elements of the folder path.
+	 * @return {@code false} if no path inside {@code folder} can match,
+	 *         {@code true} otherwise.
+	 */
+	public boolean canMatchBelow(@Nonnull List<String> folder) {
+		if (!hasSlash) {
+			return true;
+		}
+		String folderPath = toFolderPath(folder);
+		return folderPath.startsWith(literalPrefix) || literalPrefix.startsWith(folderPath);
+	}
+
+	/**
+	 * Evaluates whether every path inside the specified folder matches this
+	 * filter, which is the case when the filter is a literal followed only by
+	 * wildcards matching any sequence, and the folder starts with the literal.
+	 *
+	 * @param folder the elements of the folder path.
+	 * @return {@code true} if every path inside {@code folder} matches,
+	 *         {@code false} otherwise.
+	 */
+	public boolean matchesAllBelow(@Nonnull List<String> folder) {
+		return anyTail && toFolderPath(folder).startsWith(literalPrefix);
+	}
+
+	@Nonnull
+	private static String toFolderPath(@Nonnull List<String> folder) {
+		StringBuilder sb = new StringBuilder();
+		for (String element : folder) {
+			sb.append(element).append('/');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Compiles the specified glob.
+	 *
+	 * @param glob the glob to compile.
+	 * @return The new {@link GlobFilter} or {@code null} if {@code glob} is
+	 *         blank.
+	 */
+	@Nullable
+	public static GlobFilter compile(@Nullable String glob) {
+		if (isBlank(glob)) {
+			return null;
+		}
+		String normalized = glob.replace('\\', '/');
+		int wildcard = 0;
+		while (wildcard < normalized.length() && normalized.charAt(wildcard) != '*' && normalized.charAt(wildcard) != '?') {
+			wildcard++;
+		}
+		boolean anyTail = wildcard < normalized.length();
+		for (int i = wildcard; i < normalized.length(); i++) {
+			if (normalized.charAt(i) != '*') {
+				anyTail = false;
+				break;
+			}
+		}
+		return new GlobFilter(
+			glob,
+			toPattern(normalized),
+			normalized.substring(0, wildcard),
+			normalized.indexOf('/') >= 0,
+			anyTail
+		);
+	}
+
+	/**
+	 * Compiles the specified globs, ignoring those that are blank.
+	 *
+	 * @param globs the globs to compile or {@code null}.
+	 * @return The unmodifiable {@link List} of {@link GlobFilter}s, empty if
+	 *         {@code globs} is {@code null} or only contains blank globs.
+	 */
+	@Nonnull
+	public static List<GlobFilter> compile(@Nullable List<String> globs) {
+		if (globs == null || globs.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<GlobFilter> result = new ArrayList<>(globs.size());
+		for (String glob : globs) {
+			GlobFilter filter = compile(glob);
+			if (filter != null) {
+				result.add(filter);
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	@Nonnull
+	private static Pattern toPattern(@Nonnull String glob) {
+		Matcher matcher = GLOB_DELIMITERS.matcher(glob);
+		StringBuilder sb = new StringBuilder(glob.length() * 2);
+		int next = 0;
+		String literal;
+		while (matcher.find()) {
+			literal = glob.substring(next, matcher.start());
+			if (!literal.isEmpty()) {
+				sb.append(Pattern.quote(literal));
+			}
+			switch (matcher.group()) {
+				case "**/":
+					sb.append("(?:.*/)?");
+					break;
+				case "**":
+					sb.append(".*");
+					break;
+				case "?":
+					sb.append(".");
+					break;
+				case "*":
+					sb.append(".*");
+					break;
+				default:
+					throw new AssertionError("Broken code in GlobFilter.toPattern");
+			}
+			next = matcher.end();
+		}
+		literal = glob.substring(next);
+		if (!literal.isEmpty()) {
+			sb.append(Pattern.quote(literal));
+		}
+		return Pattern.compile(sb.toString());
+	}
+
+	@Override
+	public String toString() {
+		return glob;
+	}
+}
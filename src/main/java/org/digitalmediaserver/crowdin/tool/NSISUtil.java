@@ -10,6 +10,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.digitalmediaserver.crowdin.tool.Transcoder.LineConverter;
 
 
 /**
@@ -54,6 +55,18 @@ public class NSISUtil {
 	/** The buffer size */
 	protected static final int BUFFER_SIZE = 4096;
 
+	/**
+	 * A {@link LineConverter} that converts lines using
+	 * {@link #convertLineToNSIS(String)}
+	 */
+	public static final LineConverter TO_NSIS_CONVERTER = new LineConverter() {
+
+		@Override
+		public String convert(String line) {
+			return convertLineToNSIS(line);
+		}
+	};
+
 	/**
 	 * Not to be instantiated.
 	 */
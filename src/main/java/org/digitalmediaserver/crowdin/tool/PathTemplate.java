@@ -0,0 +1,248 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import static org.digitalmediaserver.crowdin.tool.Constants.PLACEHOLDER_PATTERN;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.digitalmediaserver.crowdin.configuration.PathPlaceholder;
+
+
+/**
+ * This class holds a compiled {@code targetFileName} template as a sequence
+ * of {@link Token}s, where literal text is merged into single tokens and
+ * placeholders that are captured by the export pattern refer directly to the
+ * corresponding capture group. Resolving the template for a file is then a
+ * single pass over the tokens.
+ * <p>
+ * Placeholders that can't be resolved are compiled into {@link Type#ERROR}
+ * tokens, so that the error is reported when the template is used, not when
+ * it's compiled.
+ *
+ * @author Nadahar
+ */
+@Immutable
+public class PathTemplate {
+
+	@Nonnull
+	private final String template;
+
+	@Nonnull
+	private final List<Token> tokens;
+
+	private PathTemplate(@Nonnull String template, @Nonnull List<Token> tokens) {
+		this.template = template;
+		this.tokens = tokens;
+	}
+
+	/**
+	 * @return The template this was compiled from.
+	 */
+	@Nonnull
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return The {@link List} of {@link Token}s.
+	 */
+	@Nonnull
+	public List<Token> getTokens() {
+		return tokens;
+	}
+
+	/**
+	 * Compiles the specified template.
+	 *
+	 * @param template the template to compile.
+	 * @param placeHolders the {@link PathPlaceholder}s captured by the export
+	 *            pattern, in the order of their capture groups.
+	 * @param exportPattern the export pattern, used in error messages.
+	 * @return The compiled {@link PathTemplate}.
+	 */
+	@Nonnull
+	public static PathTemplate compile(
+		@Nonnull String template,
+		@Nonnull List<PathPlaceholder> placeHolders,
+		@Nullable String exportPattern
+	) {
+		List<Token> tokens = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+		int position = 0;
+		while (matcher.find()) {
+			literal.append(template, position, matcher.start());
+			position = matcher.end();
+			Token token = compilePlaceholder(matcher.group(), placeHolders, exportPattern);
+			if (literal.length() > 0) {
+				tokens.add(new Token(Type.LITERAL, literal.toString(), 0));
+				literal.setLength(0);
+			}
+			tokens.add(token);
+		}
+		literal.append(template, position, template.length());
+		if (literal.length() > 0) {
+			tokens.add(new Token(Type.LITERAL, literal.toString(), 0));
+		}
+		return new PathTemplate(template, Collections.unmodifiableList(tokens));
+	}
+
+	@Nonnull
+	private static Token compilePlaceholder(
+		@Nonnull String identifier,
+		@Nonnull List<PathPlaceholder> placeHolders,
+		@Nullable String exportPattern
+	) {
+		PathPlaceholder placeholder = PathPlaceholder.typeOf(identifier);
+		if (placeholder != null) {
+			int index = placeHolders.indexOf(placeholder);
+			if (index >= 0) {
+				return new Token(Type.GROUP, identifier, index + 1);
+			}
+			switch (placeholder) {
+				case LANGUAGE:
+					return new Token(Type.LANGUAGE, identifier, 0);
+				case TWO_LETTER:
+					return new Token(Type.TWO_LETTER, identifier, 0);
+				case THREE_LETTER:
+					return new Token(Type.THREE_LETTER, identifier, 0);
+				default:
+					return new Token(
+						Type.ERROR,
+						"targetFileName refers to placeholder \"" + placeholder.getIdentifier() +
+						"\" not found in the export pattern \"" + exportPattern + "\"",
+						0
+					);
+			}
+		}
+		switch (identifier.toLowerCase(Locale.ROOT)) {
+			case "%shortest_iso639_code%":
+				return new Token(Type.SHORTEST_CODE, identifier, 0);
+			case "%crowdin_code%":
+				return new Token(Type.CROWDIN_CODE, identifier, 0);
+			case "%crowdin_code_with_underscore%":
+				return new Token(Type.CROWDIN_CODE_WITH_UNDERSCORE, identifier, 0);
+			default:
+				return new Token(Type.ERROR, "Unknown placeholder \"" + identifier + "\"", 0);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [template=" + template + ", tokens=" + tokens + "]";
+	}
+
+	/**
+	 * An {@code enum} representing the {@link Token} types.
+	 */
+	public enum Type {
+
+		/** Literal text */
+		LITERAL,
+
+		/** The content of a capture group of the export pattern */
+		GROUP,
+
+		/** The English language name */
+		LANGUAGE,
+
+		/** The {@code ISO 639-1} code */
+		TWO_LETTER,
+
+		/** The {@code ISO 639-2/T} code */
+		THREE_LETTER,
+
+		/** The shortest {@code ISO 639} code */
+		SHORTEST_CODE,
+
+		/** The Crowdin language code */
+		CROWDIN_CODE,
+
+		/** The Crowdin language code with {@code -} replaced by {@code _} */
+		CROWDIN_CODE_WITH_UNDERSCORE,
+
+		/** A placeholder that can't be resolved */
+		ERROR;
+	}
+
+	/**
+	 * A class representing a single element of a {@link PathTemplate}.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class Token {
+
+		@Nonnull
+		private final Type type;
+
+		@Nonnull
+		private final String text;
+
+		private final int group;
+
+		/**
+		 * Creates a new instance with the specified values.
+		 *
+		 * @param type the {@link Type}.
+		 * @param text the literal text, the placeholder or the error message.
+		 * @param group the capture group index for {@link Type#GROUP}.
+		 */
+		public Token(@Nonnull Type type, @Nonnull String text, int group) {
+			this.type = type;
+			this.text = text;
+			this.group = group;
+		}
+
+		/**
+		 * @return The {@link Type}.
+		 */
+		@Nonnull
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return The literal text for {@link Type#LITERAL}, the error message
+		 *         for {@link Type#ERROR} or the placeholder otherwise.
+		 */
+		@Nonnull
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * @return The capture group index for {@link Type#GROUP}.
+		 */
+		public int getGroup() {
+			return group;
+		}
+
+		@Override
+		public String toString() {
+			return type == Type.GROUP ? type + "(" + group + ")" : type + "(" + text + ")";
+		}
+	}
+}
@@ -0,0 +1,358 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.apache.maven.plugin.logging.Log;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+
+/**
+ * This class represents a snapshot of the translation progress per language,
+ * as reported by Crowdin, together with the build options used when the
+ * translations were fetched. Comparing two snapshots tells which languages
+ * might have changed translations.
+ * <p>
+ * <b>Note</b>: Edits to existing translations that don't change any of the
+ * word or phrase counts can't be detected this way.
+ *
+ * @author Nadahar
+ */
+public class ProgressSnapshot {
+
+	/** The current snapshot format version */
+	public static final int VERSION = 1;
+
+	private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+	/** The snapshot format version */
+	private int version = VERSION;
+
+	/** The build options the translations were fetched with */
+	private final String buildOptions;
+
+	/** The progress by Crowdin language ID */
+	private final TreeMap<String, LanguageProgress> languages = new TreeMap<>();
+
+	/**
+	 * Creates a new empty instance using the specified build options.
+	 *
+	 * @param buildOptions a {@link String} representation of the build
+	 *            options the translations are fetched with.
+	 */
+	public ProgressSnapshot(@Nonnull String buildOptions) {
+		this.buildOptions = buildOptions;
+	}
+
+	/**
+	 * @return The {@link String} representation of the build options the
+	 *         translations were fetched with.
+	 */
+	public String getBuildOptions() {
+		return buildOptions;
+	}
+
+	/**
+	 * @return An unmodifiable sorted {@link Map} of Crowdin language IDs and
+	 *         {@link LanguageProgress}.
+	 */
+	@Nonnull
+	public Map<String, LanguageProgress> getLanguages() {
+		return Collections.unmodifiableMap(languages);
+	}
+
+	/**
+	 * Finds the languages whose progress differs from the specified previous
+	 * snapshot.
+	 *
+	 * @param previous the previous {@link ProgressSnapshot} or {@code null}.
+	 * @return The {@link Set} of Crowdin language IDs that have changed, which
+	 *         is empty if nothing has changed, or {@code null} if the snapshots
+	 *         can't be compared and all languages must be considered changed.
+	 */
+	@Nullable
+	public Set<String> findChangedLanguages(@Nullable ProgressSnapshot previous) {
+		if (previous == null || !Objects.equals(buildOptions, previous.buildOptions)) {
+			return null;
+		}
+		if (!languages.keySet().containsAll(previous.languages.keySet())) {
+			// A language has been removed, its files must go too
+			return null;
+		}
+		Set<String> result = new TreeSet<>();
+		for (Entry<String, LanguageProgress> entry : languages.entrySet()) {
+			if (!entry.getValue().equals(previous.languages.get(entry.getKey()))) {
+				result.add(entry.getKey());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a new {@link ProgressSnapshot} from the specified translations
+	 * status as returned by
+	 * {@link org.digitalmediaserver.crowdin.api.CrowdinAPI#getTranslationStatus}.
+	 *
+	 * @param buildOptions a {@link String} representation of the build
+	 *            options the translations are fetched with.
+	 * @param status the translations status JSON.
+	 * @return The new {@link ProgressSnapshot}.
+	 * @throws JsonParseException If {@code status} isn't valid JSON.
+	 * @throws IllegalStateException If {@code status} doesn't have the
+	 *             expected structure.
+	 */
+	@Nonnull
+	public static ProgressSnapshot create(@Nonnull String buildOptions, @Nonnull String status) {
+		ProgressSnapshot result = new ProgressSnapshot(buildOptions);
+		for (JsonElement element : JsonParser.parseString(status).getAsJsonArray()) {
+			JsonObject language = element.getAsJsonObject();
+			JsonObject words = language.getAsJsonObject("words");
+			JsonObject phrases = language.getAsJsonObject("phrases");
+			if (words == null || phrases == null) {
+				throw new IllegalStateException("Missing progress for language " + language.get("languageId"));
+			}
+			result.languages.put(language.get("languageId").getAsString(), new LanguageProgress(
+				getCount(words, "total"),
+				getCount(words, "translated"),
+				getCount(words, "approved"),
+				getCount(phrases, "total"),
+				getCount(phrases, "translated"),
+				getCount(phrases, "approved")
+			));
+		}
+		return result;
+	}
+
+	private static long getCount(@Nonnull JsonObject object, @Nonnull String name) {
+		JsonElement element = object.get(name);
+		return element == null || element.isJsonNull() ? -1L : element.getAsLong();
+	}
+
+	/**
+	 * Loads a {@link ProgressSnapshot} from the specified file.
+	 *
+	 * @param file the snapshot file.
+	 * @param logger the {@link Log} to log to.
+	 * @return The loaded {@link ProgressSnapshot} or {@code null} if the file
+	 *         doesn't exist or can't be parsed.
+	 */
+	@Nullable
+	public static ProgressSnapshot load(@Nonnull Path file, @Nullable Log logger) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		ProgressSnapshot result;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			result = GSON.fromJson(reader, ProgressSnapshot.class);
+		} catch (IOException | JsonParseException e) {
+			if (logger != null) {
+				logger.warn("Ignoring invalid progress snapshot \"" + file + "\": " + e.getMessage());
+			}
+			return null;
+		}
+		if (result == null || result.version != VERSION || result.buildOptions == null) {
+			if (logger != null && logger.isDebugEnabled()) {
+				logger.debug("Ignoring progress snapshot \"" + file + "\" with unknown version");
+			}
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Stores this {@link ProgressSnapshot} to the specified file. The file is
+	 * first written to a temporary file which is then moved into place.
+	 *
+	 * @param file the snapshot file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public void save(@Nonnull Path file) throws IOException {
+		Path folder = file.toAbsolutePath().getParent();
+		if (folder != null) {
+			Files.createDirectories(folder);
+		}
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+			GSON.toJson(this, writer);
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(buildOptions, languages, Integer.valueOf(version));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ProgressSnapshot)) {
+			return false;
+		}
+		ProgressSnapshot other = (ProgressSnapshot) obj;
+		return
+			Objects.equals(buildOptions, other.buildOptions) &&
+			Objects.equals(languages, other.languages) &&
+			version == other.version;
+	}
+
+	/**
+	 * This class holds the word and phrase counts for a single language.
+	 *
+	 * @author Nadahar
+	 */
+	@Immutable
+	public static class LanguageProgress {
+
+		private final long totalWords;
+		private final long translatedWords;
+		private final long approvedWords;
+		private final long totalPhrases;
+		private final long translatedPhrases;
+		private final long approvedPhrases;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param totalWords the total number of words.
+		 * @param translatedWords the number of translated words.
+		 * @param approvedWords the number of approved words.
+		 * @param totalPhrases the total number of phrases.
+		 * @param translatedPhrases the number of translated phrases.
+		 * @param approvedPhrases the number of approved phrases.
+		 */
+		public LanguageProgress(
+			long totalWords,
+			long translatedWords,
+			long approvedWords,
+			long totalPhrases,
+			long translatedPhrases,
+			long approvedPhrases
+		) {
+			this.totalWords = totalWords;
+			this.translatedWords = translatedWords;
+			this.approvedWords = approvedWords;
+			this.totalPhrases = totalPhrases;
+			this.translatedPhrases = translatedPhrases;
+			this.approvedPhrases = approvedPhrases;
+		}
+
+		/**
+		 * @return The total number of words.
+		 */
+		public long getTotalWords() {
+			return totalWords;
+		}
+
+		/**
+		 * @return The number of translated words.
+		 */
+		public long getTranslatedWords() {
+			return translatedWords;
+		}
+
+		/**
+		 * @return The number of approved words.
+		 */
+		public long getApprovedWords() {
+			return approvedWords;
+		}
+
+		/**
+		 * @return The total number of phrases.
+		 */
+		public long getTotalPhrases() {
+			return totalPhrases;
+		}
+
+		/**
+		 * @return The number of translated phrases.
+		 */
+		public long getTranslatedPhrases() {
+			return translatedPhrases;
+		}
+
+		/**
+		 * @return The number of approved phrases.
+		 */
+		public long getApprovedPhrases() {
+			return approvedPhrases;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(
+				Long.valueOf(approvedPhrases),
+				Long.valueOf(approvedWords),
+				Long.valueOf(totalPhrases),
+				Long.valueOf(totalWords),
+				Long.valueOf(translatedPhrases),
+				Long.valueOf(translatedWords)
+			);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LanguageProgress)) {
+				return false;
+			}
+			LanguageProgress other = (LanguageProgress) obj;
+			return
+				approvedPhrases == other.approvedPhrases &&
+				approvedWords == other.approvedWords &&
+				totalPhrases == other.totalPhrases &&
+				totalWords == other.totalWords &&
+				translatedPhrases == other.translatedPhrases &&
+				translatedWords == other.translatedWords;
+		}
+
+		@Override
+		public String toString() {
+			return
+				getClass().getSimpleName() + " [words=" + translatedWords + "/" + approvedWords + "/" + totalWords +
+				", phrases=" + translatedPhrases + "/" + approvedPhrases + "/" + totalPhrases + "]";
+		}
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.logging.Log;
+import org.digitalmediaserver.crowdin.api.response.FileInfo;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * This class represents a stamp of the remote state at Crowdin that the
+ * translations were fetched from. It consists of the project's last activity
+ * time and a digest of the revisions of the source files, which together
+ * change whenever translations or source files change. Comparing a new stamp
+ * with the stamp stored by the previous fetch tells whether the local
+ * translations are stale, without building anything at Crowdin.
+ *
+ * @author Nadahar
+ */
+public class RemoteStamp {
+
+	/** The current stamp format version */
+	public static final int VERSION = 1;
+
+	/** The {@link MessageDigest} algorithm used for the files digest */
+	public static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+	/** The stamp format version */
+	private int version = VERSION;
+
+	/** The build options the translations were fetched with */
+	private final String buildOptions;
+
+	/** The project's last activity time in milliseconds since the epoch */
+	private final long lastActivity;
+
+	/** The number of source files */
+	private final int fileCount;
+
+	/** The lower-case hexadecimal digest of the source file revisions */
+	private final String filesDigest;
+
+	/** The ID of the build the translations were fetched from */
+	private Long buildId;
+
+	/** The time the build finished in milliseconds since the epoch */
+	private Long buildFinishedAt;
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param buildOptions a {@link String} representation of the build
+	 *            options the translations are fetched with.
+	 * @param lastActivity the project's last activity time in milliseconds
+	 *            since the epoch.
+	 * @param fileCount the number of source files.
+	 * @param filesDigest the lower-case hexadecimal digest of the source file
+	 *            revisions.
+	 */
+	public RemoteStamp(
+		@Nonnull String buildOptions,
+		long lastActivity,
+		int fileCount,
+		@Nonnull String filesDigest
+	) {
+		this.buildOptions = buildOptions;
+		this.lastActivity = lastActivity;
+		this.fileCount = fileCount;
+		this.filesDigest = filesDigest;
+	}
+
+	/**
+	 * @return The {@link String} representation of the build options the
+	 *         translations were fetched with.
+	 */
+	public String getBuildOptions() {
+		return buildOptions;
+	}
+
+	/**
+	 * @return The project's last activity time in milliseconds since the
+	 *         epoch.
+	 */
+	public long getLastActivity() {
+		return lastActivity;
+	}
+
+	/**
+	 * @return The number of source files.
+	 */
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	/**
+	 * @return The lower-case hexadecimal digest of the source file revisions.
+	 */
+	public String getFilesDigest() {
+		return filesDigest;
+	}
+
+	/**
+	 * @return The ID of the build the translations were fetched from or
+	 *         {@code null}.
+	 */
+	@Nullable
+	public Long getBuildId() {
+		return buildId;
+	}
+
+	/**
+	 * @return The time the build the translations were fetched from finished
+	 *         in milliseconds since the epoch, or {@code null}.
+	 */
+	@Nullable
+	public Long getBuildFinishedAt() {
+		return buildFinishedAt;
+	}
+
+	/**
+	 * Records the build the translations were fetched from.
+	 *
+	 * @param buildId the build ID.
+	 * @param finishedAt the time the build finished or {@code null}.
+	 */
+	public void setBuild(long buildId, @Nullable Date finishedAt) {
+		this.buildId = Long.valueOf(buildId);
+		this.buildFinishedAt = finishedAt == null ? null : Long.valueOf(finishedAt.getTime());
+	}
+
+	/**
+	 * Evaluates whether the specified stamp represents the same remote state
+	 * as this stamp. The recorded builds aren't compared.
+	 *
+	 * @param other the {@link RemoteStamp} to compare with or {@code null}.
+	 * @return {@code true} if the remote state is the same, {@code false}
+	 *         otherwise.
+	 */
+	public boolean isSameState(@Nullable RemoteStamp other) {
+		return
+			other != null &&
+			Objects.equals(buildOptions, other.buildOptions) &&
+			lastActivity == other.lastActivity &&
+			fileCount == other.fileCount &&
+			Objects.equals(filesDigest, other.filesDigest);
+	}
+
+	/**
+	 * Calculates a digest of the IDs, revisions and update times of the
+	 * specified files. The result is independent of the order of the files.
+	 *
+	 * @param files the {@link FileInfo} instances.
+	 * @return The lower-case hexadecimal {@link #DIGEST_ALGORITHM} digest.
+	 * @throws IOException If the digest algorithm isn't supported.
+	 */
+	@Nonnull
+	public static String calculateFilesDigest(@Nonnull List<FileInfo> files) throws IOException {
+		List<FileInfo> sorted = new ArrayList<>(files);
+		Collections.sort(sorted, new Comparator<FileInfo>() {
+
+			@Override
+			public int compare(FileInfo o1, FileInfo o2) {
+				return Long.compare(o1.getId(), o2.getId());
+			}
+		});
+		MessageDigest digest = FileUtil.createMessageDigest(DIGEST_ALGORITHM);
+		StringBuilder sb = new StringBuilder();
+		for (FileInfo file : sorted) {
+			sb.setLength(0);
+			sb.append(file.getId()).append(':').append(file.getRevisionId()).append(':');
+			sb.append(file.getUpdatedAt() == null ? "" : Long.toString(file.getUpdatedAt().getTime())).append('\n');
+			digest.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		return StringUtil.toHexString(digest.digest());
+	}
+
+	/**
+	 * Loads a {@link RemoteStamp} from the specified file.
+	 *
+	 * @param file the stamp file.
+	 * @param logger the {@link Log} to log to.
+	 * @return The loaded {@link RemoteStamp} or {@code null} if the file
+	 *         doesn't exist or can't be parsed.
+	 */
+	@Nullable
+	public static RemoteStamp load(@Nonnull Path file, @Nullable Log logger) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		RemoteStamp result;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			result = GSON.fromJson(reader, RemoteStamp.class);
+		} catch (IOException | JsonParseException e) {
+			if (logger != null) {
+				logger.warn("Ignoring invalid remote stamp \"" + file + "\": " + e.getMessage());
+			}
+			return null;
+		}
+		if (result == null || result.version != VERSION || result.filesDigest == null) {
+			if (logger != null && logger.isDebugEnabled()) {
+				logger.debug("Ignoring remote stamp \"" + file + "\" with unknown version");
+			}
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Stores this {@link RemoteStamp} to the specified file. The file is first
+	 * written to a temporary file which is then moved into place.
+	 *
+	 * @param file the stamp file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public void save(@Nonnull Path file) throws IOException {
+		Path folder = file.toAbsolutePath().getParent();
+		if (folder != null) {
+			Files.createDirectories(folder);
+		}
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+			GSON.toJson(this, writer);
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [buildOptions=" + buildOptions + ", lastActivity=" + lastActivity +
+			", fileCount=" + fileCount + ", filesDigest=" + filesDigest + ", buildId=" + buildId +
+			", buildFinishedAt=" + buildFinishedAt + "]";
+	}
+}
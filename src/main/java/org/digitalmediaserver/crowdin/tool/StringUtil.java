@@ -18,6 +18,7 @@
  */
 package org.digitalmediaserver.crowdin.tool;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 
@@ -28,6 +29,8 @@ import javax.annotation.Nullable;
  */
 public class StringUtil {
 
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
 	/**
 	 * Not to be instantiated.
 	 */
@@ -69,4 +72,20 @@ public class StringUtil {
 		}
 		return true;
 	}
+
+	/**
+	 * Converts the specified bytes to a lower-case hexadecimal {@link String}.
+	 *
+	 * @param bytes the bytes to convert.
+	 * @return The hexadecimal {@link String} representation.
+	 */
+	@Nonnull
+	public static String toHexString(@Nonnull byte[] bytes) {
+		char[] result = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(result);
+	}
 }
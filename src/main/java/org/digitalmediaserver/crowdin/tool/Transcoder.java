@@ -0,0 +1,402 @@
+/*
+ * Crowdin Maven Plugin, an Apache Maven plugin for synchronizing translation
+ * files using the crowdin.com API.
+ * Copyright (C) 2018 Digital Media Server developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.digitalmediaserver.crowdin.tool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * This class converts text from one {@link Charset} to another while
+ * replacing the line separators, working directly on buffers. Like
+ * {@link java.io.BufferedReader#readLine()}, {@code \n}, {@code \r} and
+ * {@code \r\n} are recognized as line separators, and a line separator is
+ * written after the last line even if the source doesn't end with one.
+ * <p>
+ * If the source and target {@link Charset}s are the same and ASCII
+ * compatible, and no {@link LineConverter} is used, the line separators are
+ * replaced directly in the bytes without decoding them. In that case,
+ * malformed input isn't detected. Otherwise, malformed input and characters
+ * that can't be encoded are reported as errors.
+ * <p>
+ * Instances hold their {@link CharsetDecoder}, {@link CharsetEncoder} and
+ * buffers for reuse, and can't be shared between threads. Use
+ * {@link #get(Charset, Charset)} to get an instance for the current thread.
+ *
+ * @author Nadahar
+ */
+@NotThreadSafe
+public class Transcoder {
+
+	private static final ThreadLocal<Map<String, Transcoder>> INSTANCES = new ThreadLocal<Map<String, Transcoder>>() {
+
+		@Override
+		protected Map<String, Transcoder> initialValue() {
+			return new HashMap<>();
+		}
+	};
+
+	@Nonnull
+	private final Charset sourceCharset;
+
+	@Nonnull
+	private final Charset targetCharset;
+
+	@Nonnull
+	private final CharsetDecoder decoder;
+
+	@Nonnull
+	private final CharsetEncoder encoder;
+
+	private final boolean byteLevel;
+
+	private final ByteBuffer inBytes = ByteBuffer.allocate(FileUtil.BUFFER_SIZE);
+
+	private final CharBuffer inChars = CharBuffer.allocate(FileUtil.BUFFER_SIZE);
+
+	private final CharBuffer outChars = CharBuffer.allocate(FileUtil.BUFFER_SIZE);
+
+	private final ByteBuffer outBytes = ByteBuffer.allocate(FileUtil.BUFFER_SIZE * 2);
+
+	private final StringBuilder line = new StringBuilder();
+
+	private boolean lineOpen;
+
+	private boolean pendingCR;
+
+	/**
+	 * Creates a new instance for the specified {@link Charset}s.
+	 *
+	 * @param sourceCharset the {@link Charset} of the source.
+	 * @param targetCharset the {@link Charset} of the target.
+	 */
+	public Transcoder(@Nonnull Charset sourceCharset, @Nonnull Charset targetCharset) {
+		this.sourceCharset = sourceCharset;
+		this.targetCharset = targetCharset;
+		this.decoder = sourceCharset.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPORT)
+			.onUnmappableCharacter(CodingErrorAction.REPORT);
+		this.encoder = targetCharset.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPORT)
+			.onUnmappableCharacter(CodingErrorAction.REPORT);
+		this.byteLevel = sourceCharset.equals(targetCharset) && isAsciiCompatible(sourceCharset);
+	}
+
+	/**
+	 * Returns the instance for the specified {@link Charset}s belonging to
+	 * the current thread, creating it if needed.
+	 *
+	 * @param sourceCharset the {@link Charset} of the source.
+	 * @param targetCharset the {@link Charset} of the target.
+	 * @return The {@link Transcoder}.
+	 */
+	@Nonnull
+	public static Transcoder get(@Nonnull Charset sourceCharset, @Nonnull Charset targetCharset) {
+		Map<String, Transcoder> instances = INSTANCES.get();
+		String key = sourceCharset.name() + '>' + targetCharset.name();
+		Transcoder result = instances.get(key);
+		if (result == null) {
+			result = new Transcoder(sourceCharset, targetCharset);
+			instances.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The {@link Charset} of the source.
+	 */
+	@Nonnull
+	public Charset getSourceCharset() {
+		return sourceCharset;
+	}
+
+	/**
+	 * @return The {@link Charset} of the target.
+	 */
+	@Nonnull
+	public Charset getTargetCharset() {
+		return targetCharset;
+	}
+
+	/**
+	 * Reads the source from the specified {@link InputStream}, converts it to
+	 * the target {@link Charset} with the specified line separator, and
+	 * writes the result to the specified {@link OutputStream}. Neither stream
+	 * is closed. The prefix and the source are encoded as one, so that an
+	 * encoder that writes a byte order mark only writes it once.
+	 *
+	 * @param prefix the text to write before the source or {@code null}.
+	 * @param inputStream the {@link InputStream} to read from.
+	 * @param outputStream the {@link OutputStream} to write to.
+	 * @param lineSeparator the line separator to write.
+	 * @param converter the {@link LineConverter} to apply to each line or
+	 *            {@code null}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public void transcode(
+		@Nullable CharSequence prefix,
+		@Nonnull InputStream inputStream,
+		@Nonnull OutputStream outputStream,
+		@Nonnull String lineSeparator,
+		@Nullable LineConverter converter
+	) throws IOException {
+		encoder.reset();
+		outChars.clear();
+		outBytes.clear();
+		if (byteLevel && converter == null) {
+			if (prefix != null && prefix.length() > 0) {
+				put(prefix, outputStream);
+				finishEncoding(outputStream);
+			}
+			transcodeBytes(inputStream, outputStream, lineSeparator.getBytes(targetCharset));
+			return;
+		}
+		decoder.reset();
+		inBytes.clear();
+		if (prefix != null) {
+			put(prefix, outputStream);
+		}
+		line.setLength(0);
+		lineOpen = false;
+		pendingCR = false;
+		boolean endOfInput = false;
+		CoderResult result;
+		while (!endOfInput) {
+			endOfInput = !fill(inputStream);
+			inBytes.flip();
+			do {
+				inChars.clear();
+				result = decoder.decode(inBytes, inChars, endOfInput);
+				if (result.isError()) {
+					result.throwException();
+				}
+				inChars.flip();
+				processChars(lineSeparator, converter, outputStream);
+			} while (result.isOverflow());
+			inBytes.compact();
+		}
+		do {
+			inChars.clear();
+			result = decoder.flush(inChars);
+			inChars.flip();
+			processChars(lineSeparator, converter, outputStream);
+		} while (result.isOverflow());
+		if (lineOpen) {
+			endLine(lineSeparator, converter, outputStream);
+		}
+		finishEncoding(outputStream);
+	}
+
+	private void processChars(
+		@Nonnull String lineSeparator,
+		@Nullable LineConverter converter,
+		@Nonnull OutputStream outputStream
+	) throws IOException {
+		while (inChars.hasRemaining()) {
+			char c = inChars.get();
+			if (pendingCR) {
+				pendingCR = false;
+				if (c == '\n') {
+					continue;
+				}
+			}
+			if (c == '\r' || c == '\n') {
+				endLine(lineSeparator, converter, outputStream);
+				lineOpen = false;
+				pendingCR = c == '\r';
+			} else {
+				if (converter == null) {
+					put(c, outputStream);
+				} else {
+					line.append(c);
+				}
+				lineOpen = true;
+			}
+		}
+	}
+
+	private void transcodeBytes(
+		@Nonnull InputStream inputStream,
+		@Nonnull OutputStream outputStream,
+		@Nonnull byte[] lineSeparator
+	) throws IOException {
+		byte[] buffer = inBytes.array();
+		boolean lineOpen = false;
+		boolean pendingCR = false;
+		int read;
+		while ((read = inputStream.read(buffer)) != -1) {
+			int start = 0;
+			for (int i = 0; i < read; i++) {
+				byte b = buffer[i];
+				if (pendingCR) {
+					pendingCR = false;
+					if (b == '\n') {
+						start = i + 1;
+						continue;
+					}
+				}
+				if (b == '\r' || b == '\n') {
+					if (i > start) {
+						outputStream.write(buffer, start, i - start);
+					}
+					outputStream.write(lineSeparator);
+					lineOpen = false;
+					pendingCR = b == '\r';
+					start = i + 1;
+				} else {
+					lineOpen = true;
+				}
+			}
+			if (read > start) {
+				outputStream.write(buffer, start, read - start);
+			}
+		}
+		if (lineOpen) {
+			outputStream.write(lineSeparator);
+		}
+	}
+
+	private boolean fill(@Nonnull InputStream inputStream) throws IOException {
+		int read = inputStream.read(inBytes.array(), inBytes.arrayOffset() + inBytes.position(), inBytes.remaining());
+		if (read < 0) {
+			return false;
+		}
+		inBytes.position(inBytes.position() + read);
+		return true;
+	}
+
+	private void endLine(
+		@Nonnull String lineSeparator,
+		@Nullable LineConverter converter,
+		@Nonnull OutputStream outputStream
+	) throws IOException {
+		if (converter != null) {
+			put(converter.convert(line.toString()), outputStream);
+			line.setLength(0);
+		}
+		put(lineSeparator, outputStream);
+	}
+
+	private void put(char c, @Nonnull OutputStream outputStream) throws IOException {
+		if (!outChars.hasRemaining()) {
+			encode(false, outputStream);
+		}
+		outChars.put(c);
+	}
+
+	private void put(@Nonnull CharSequence text, @Nonnull OutputStream outputStream) throws IOException {
+		int length = text.length();
+		int position = 0;
+		while (position < length) {
+			if (!outChars.hasRemaining()) {
+				encode(false, outputStream);
+			}
+			int count = Math.min(outChars.remaining(), length - position);
+			outChars.append(text, position, position + count);
+			position += count;
+		}
+	}
+
+	private void encode(boolean endOfInput, @Nonnull OutputStream outputStream) throws IOException {
+		outChars.flip();
+		CoderResult result;
+		do {
+			result = encoder.encode(outChars, outBytes, endOfInput);
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (result.isOverflow()) {
+				flushBytes(outputStream);
+			}
+		} while (result.isOverflow());
+		outChars.compact();
+	}
+
+	private void finishEncoding(@Nonnull OutputStream outputStream) throws IOException {
+		encode(true, outputStream);
+		CoderResult result;
+		do {
+			result = encoder.flush(outBytes);
+			flushBytes(outputStream);
+		} while (result.isOverflow());
+		outChars.clear();
+	}
+
+	private void flushBytes(@Nonnull OutputStream outputStream) throws IOException {
+		if (outBytes.position() > 0) {
+			outputStream.write(outBytes.array(), outBytes.arrayOffset(), outBytes.position());
+			outBytes.clear();
+		}
+	}
+
+	/**
+	 * Evaluates whether the specified {@link Charset} is ASCII compatible in
+	 * the sense that bytes {@code 0x0A} and {@code 0x0D} only ever represent
+	 * {@code \n} and {@code \r}.
+	 *
+	 * @param charset the {@link Charset} to evaluate.
+	 * @return {@code true} if {@code charset} is ASCII compatible,
+	 *         {@code false} otherwise.
+	 */
+	public static boolean isAsciiCompatible(@Nonnull Charset charset) {
+		if (
+			StandardCharsets.UTF_8.equals(charset) ||
+			StandardCharsets.US_ASCII.equals(charset) ||
+			StandardCharsets.ISO_8859_1.equals(charset)
+		) {
+			return true;
+		}
+		return
+			charset.canEncode() &&
+			charset.newEncoder().maxBytesPerChar() == 1f &&
+			Arrays.equals("\r\n".getBytes(charset), new byte[] {'\r', '\n'});
+	}
+
+	/**
+	 * An interface for converting individual lines.
+	 *
+	 * @author Nadahar
+	 */
+	public interface LineConverter {
+
+		/**
+		 * Converts a line.
+		 *
+		 * @param line the line without line separator.
+		 * @return The converted line.
+		 */
+		@Nonnull
+		String convert(@Nonnull String line);
+	}
+}